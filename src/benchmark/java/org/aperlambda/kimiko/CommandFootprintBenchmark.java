@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2019 LambdAurora <aurora42lambda@gmail.com>
+ *
+ * This file is part of kimiko.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package org.aperlambda.kimiko;
+
+import org.aperlambda.lambdacommon.resources.ResourceName;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the heap footprint of a large generated command tree, in bytes per {@link Command} node.
+ * <p>Run with {@code gradle benchmark}, preferably several times as the measure depends on the garbage collector.</p>
+ */
+public class CommandFootprintBenchmark
+{
+    private static final int                     ROOTS    = 500;
+    private static final int                     CHILDREN = 100;
+    private static final CommandExecutor<Object> EXECUTOR = (context, command, label, args) -> CommandResult.SUCCESS;
+
+    public static void main(String[] args)
+    {
+        // Warms up the classes so they don't count in the measure.
+        build(1);
+
+        long before = used_memory();
+        var tree = build(ROOTS);
+        long after = used_memory();
+
+        int nodes = ROOTS * (CHILDREN + 1);
+        System.out.println("Nodes: " + nodes);
+        System.out.println("Bytes per node: " + (after - before) / nodes);
+        System.out.println("(" + tree.size() + " roots kept alive)");
+    }
+
+    private static List<Command<Object>> build(int roots)
+    {
+        var tree = new ArrayList<Command<Object>>(roots);
+        for (int i = 0; i < roots; i++) {
+            var root = new CommandBuilder<Object>(new ResourceName("kimiko", "region_" + i))
+                    .usage("<command> <action>")
+                    .description("Manages the region.")
+                    .permission("kimiko.region")
+                    .executor(EXECUTOR)
+                    .build();
+            for (int j = 0; j < CHILDREN; j++) {
+                root.add_sub_command(new CommandBuilder<Object>(new ResourceName("kimiko", "item_" + j))
+                        .usage("<command>")
+                        .description("Uses the item.")
+                        .permission("kimiko.region.item")
+                        .executor(EXECUTOR)
+                        .build());
+            }
+            tree.add(root);
+        }
+        return tree;
+    }
+
+    private static long used_memory()
+    {
+        var runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -1,6 +1,7 @@
 module org.aperlambda.kimiko {
     exports org.aperlambda.kimiko;
 
+    requires jdk.jfr;
     requires org.aperlambda.lambdacommon;
     requires annotations;
 }
\ No newline at end of file
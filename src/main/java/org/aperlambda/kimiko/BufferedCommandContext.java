@@ -0,0 +1,190 @@
+/*
+ * Copyright © 2019 LambdAurora <aurora42lambda@gmail.com>
+ *
+ * This file is part of kimiko.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package org.aperlambda.kimiko;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Represents a command context which buffers the messages sent to the sender and delivers them in batches to a {@link CommandMessageSink}.
+ * <p>The buffer is flushed when closed, so wrapping a dispatch in a try-with-resources delivers its whole output as a single batch:</p>
+ * <pre>{@code
+ * try (var buffered = new BufferedCommandContext<>(context, CommandMessageSink.joining(context, "\n"))) {
+ *     command.handle_execution(buffered, label, args);
+ * }
+ * }</pre>
+ * <p>Optional thresholds flush the buffer earlier: a maximum number of messages, a maximum number of characters
+ * and a maximum delay since the oldest buffered message. The delay bounds the latency of the messages only if a timer is given,
+ * without timer it is checked when a message is sent, so the last messages of an executor which stops sending wait for the next flush.
+ * For very large outputs, combine the thresholds with a {@link StreamingMessageSink}.</p>
+ *
+ * @param <S> The typename of the sender.
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class BufferedCommandContext<S> implements CommandContext<S>, AutoCloseable
+{
+    private final @NotNull  CommandContext<S>        context;
+    private final @NotNull  CommandMessageSink       sink;
+    private final           int                      max_messages;
+    private final           int                      max_chars;
+    private final           long                     max_delay;
+    private final @Nullable ScheduledExecutorService timer;
+    private final @NotNull  List<String>             buffer = new ArrayList<>();
+    private                 int                      chars  = 0;
+    private                 long                     oldest = 0;
+    private                 ScheduledFuture<?>       delayed_flush;
+
+    /**
+     * Creates a new buffered context which only flushes when closed or explicitly flushed.
+     *
+     * @param context The context to wrap.
+     * @param sink    The sink which receives the batches.
+     */
+    public BufferedCommandContext(@NotNull CommandContext<S> context, @NotNull CommandMessageSink sink)
+    {
+        this(context, sink, 0, 0, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates a new buffered context.
+     *
+     * @param context      The context to wrap.
+     * @param sink         The sink which receives the batches.
+     * @param max_messages The number of buffered messages which triggers a flush, 0 for no limit.
+     * @param max_chars    The number of buffered characters which triggers a flush, 0 for no limit.
+     * @param max_delay    The delay since the oldest buffered message which triggers a flush, checked when a message is sent, 0 for no limit.
+     * @param unit         The time unit of the delay.
+     */
+    public BufferedCommandContext(@NotNull CommandContext<S> context, @NotNull CommandMessageSink sink, int max_messages, int max_chars, long max_delay, @NotNull TimeUnit unit)
+    {
+        this(context, sink, max_messages, max_chars, max_delay, unit, null);
+    }
+
+    /**
+     * Creates a new buffered context.
+     *
+     * @param context      The context to wrap.
+     * @param sink         The sink which receives the batches.
+     * @param max_messages The number of buffered messages which triggers a flush, 0 for no limit.
+     * @param max_chars    The number of buffered characters which triggers a flush, 0 for no limit.
+     * @param max_delay    The delay since the oldest buffered message which triggers a flush, 0 for no limit.
+     * @param unit         The time unit of the delay.
+     * @param timer        The timer which flushes the buffer once the delay is reached, on its own thread, null to only check the delay when a message is sent.
+     */
+    public BufferedCommandContext(@NotNull CommandContext<S> context, @NotNull CommandMessageSink sink, int max_messages, int max_chars, long max_delay, @NotNull TimeUnit unit,
+                                  @Nullable ScheduledExecutorService timer)
+    {
+        if (max_messages < 0 || max_chars < 0 || max_delay < 0)
+            throw new IllegalArgumentException("Flush thresholds cannot be negative.");
+        this.context = Objects.requireNonNull(context, "Context cannot be null.");
+        this.sink = Objects.requireNonNull(sink, "Message sink cannot be null.");
+        this.max_messages = max_messages;
+        this.max_chars = max_chars;
+        this.max_delay = unit.toNanos(max_delay);
+        this.timer = max_delay == 0 ? null : timer;
+    }
+
+    /**
+     * Gets the wrapped context.
+     *
+     * @return The wrapped context.
+     */
+    public @NotNull CommandContext<S> get_context()
+    {
+        return context;
+    }
+
+    @Override
+    public S get_sender()
+    {
+        return context.get_sender();
+    }
+
+    @Override
+    public String get_sender_name()
+    {
+        return context.get_sender_name();
+    }
+
+    @Override
+    public synchronized void send_message(String message)
+    {
+        var now = max_delay == 0 ? 0 : System.nanoTime();
+        if (buffer.isEmpty()) {
+            oldest = now;
+            schedule_flush();
+        }
+        buffer.add(message);
+        chars += message == null ? 0 : message.length();
+        if ((max_messages != 0 && buffer.size() >= max_messages) || (max_chars != 0 && chars >= max_chars) || (max_delay != 0 && now - oldest >= max_delay))
+            flush();
+    }
+
+    @Override
+    public boolean has_permission(String permission)
+    {
+        return context.has_permission(permission);
+    }
+
+    private void schedule_flush()
+    {
+        if (timer == null)
+            return;
+        try {
+            delayed_flush = timer.schedule(this::flush_delayed, max_delay, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // The timer is shut down, the delay is still checked when a message is sent.
+        }
+    }
+
+    private synchronized void flush_delayed()
+    {
+        // A flush triggered meanwhile may have emptied the buffer, or the buffer may have been filled again more recently.
+        if (!buffer.isEmpty() && System.nanoTime() - oldest >= max_delay)
+            flush();
+    }
+
+    /**
+     * Delivers the buffered messages to the sink, if any.
+     */
+    public synchronized void flush()
+    {
+        if (delayed_flush != null) {
+            delayed_flush.cancel(false);
+            delayed_flush = null;
+        }
+        if (buffer.isEmpty())
+            return;
+        try {
+            sink.send_messages(buffer);
+        } finally {
+            buffer.clear();
+            chars = 0;
+        }
+    }
+
+    /**
+     * Flushes the buffered messages.
+     */
+    @Override
+    public void close()
+    {
+        flush();
+    }
+}
@@ -17,14 +17,16 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
  * Represents a command.
  *
  * @param <S> The typename of the sender.
- * @version 1.1.0
+ * @version 1.2.0
  * @since 1.0.0
  */
 public class Command<S> implements ResourceNameable
@@ -34,18 +36,23 @@ public class Command<S> implements ResourceNameable
      */
     public static final CommandTabCompleter DEFAULT_TAB_COMPLETER = ((context, command, label, args) -> null);
 
+    private static final Command<?>[] NO_SUB_COMMANDS = new Command<?>[0];
+
     private final @NotNull ResourceName           name;
     private                Command<S>             parent;
     private                String                 usage;
-    private @NotNull       Function<S, String>    usage_getter  = (sender) -> get_usage();
+    private @Nullable      Function<S, String>    usage_getter;
     private                String                 description;
-    private @NotNull       Function<S, String>    descr_getter  = (sender) -> get_description();
-    private @NotNull       List<String>           aliases       = new ArrayList<>();
+    private @Nullable      Function<S, String>    descr_getter;
+    private @NotNull       List<String>           aliases       = Collections.emptyList();
     private                String                 required_permission;
-    private final          List<Command<S>>       sub_commands  = new ArrayList<>();
+    @SuppressWarnings("unchecked")
+    private @NotNull       Command<S>[]           sub_commands  = (Command<S>[]) NO_SUB_COMMANDS;
     private                CommandExecutor<S>     executor;
     @SuppressWarnings("unchecked")
     private                CommandTabCompleter<S> tab_completer = (CommandTabCompleter<S>) DEFAULT_TAB_COMPLETER;
+    private                long                   time_budget   = 0;
+    private                CommandWatchdog        watchdog;
 
     public Command(@NotNull ResourceName name)
     {
@@ -73,6 +80,38 @@ public class Command<S> implements ResourceNameable
         this.parent = parent;
     }
 
+    /**
+     * Materializes the command if its definition is deferred, called before accessing or changing anything but its name, aliases, permission and parent.
+     *
+     * @see LazyCommand
+     */
+    void materialize()
+    {
+    }
+
+    /**
+     * Copies the definition of the specified command into this command, except its name, aliases and permission.
+     * <p>The sub-commands are moved to this command.</p>
+     *
+     * @param command The command to copy.
+     */
+    void adopt(@NotNull Command<S> command)
+    {
+        this.usage = command.usage;
+        this.usage_getter = command.usage_getter;
+        this.description = command.description;
+        this.descr_getter = command.descr_getter;
+        this.executor = command.executor;
+        this.tab_completer = command.tab_completer;
+        this.time_budget = command.time_budget;
+        this.watchdog = command.watchdog;
+        var sub_commands = Arrays.copyOf(this.sub_commands, this.sub_commands.length + command.sub_commands.length);
+        System.arraycopy(command.sub_commands, 0, sub_commands, this.sub_commands.length, command.sub_commands.length);
+        for (var sub_command : command.sub_commands)
+            sub_command.set_parent(this);
+        this.sub_commands = sub_commands;
+    }
+
     /**
      * Checks whether the command has a parent command or not.
      *
@@ -91,7 +130,8 @@ public class Command<S> implements ResourceNameable
      */
     public String get_usage()
     {
-        return this.usage;
+        materialize();
+        return this.usage == null ? null : this.usage.replace("<command>", get_name());
     }
 
     /**
@@ -102,7 +142,9 @@ public class Command<S> implements ResourceNameable
      */
     public void set_usage(String usage)
     {
-        this.usage = usage.replace("<command>", get_name());
+        materialize();
+        // The raw usage is kept and interned as generated commands often share the same one, the name is replaced on demand.
+        this.usage = usage.intern();
     }
 
     /**
@@ -115,7 +157,8 @@ public class Command<S> implements ResourceNameable
      */
     public @NotNull String get_usage(S sender)
     {
-        return this.usage_getter.apply(sender);
+        materialize();
+        return this.usage_getter == null ? get_usage() : this.usage_getter.apply(sender);
     }
 
     /**
@@ -126,6 +169,7 @@ public class Command<S> implements ResourceNameable
     public void set_usage(@NotNull Function<S, String> usage)
     {
         Objects.requireNonNull(usage, "Usage getter cannot be null.");
+        materialize();
         usage_getter = usage;
     }
 
@@ -136,6 +180,7 @@ public class Command<S> implements ResourceNameable
      */
     public String get_description()
     {
+        materialize();
         return this.description;
     }
 
@@ -146,6 +191,7 @@ public class Command<S> implements ResourceNameable
      */
     public void set_description(@NotNull String description)
     {
+        materialize();
         this.description = description;
     }
 
@@ -159,7 +205,8 @@ public class Command<S> implements ResourceNameable
      */
     public @NotNull String get_description(S sender)
     {
-        return descr_getter.apply(sender);
+        materialize();
+        return this.descr_getter == null ? get_description() : this.descr_getter.apply(sender);
     }
 
     /**
@@ -170,13 +217,14 @@ public class Command<S> implements ResourceNameable
     public void set_description(@NotNull Function<S, String> description)
     {
         Objects.requireNonNull(description, "Description getter cannot be null.");
+        materialize();
         this.descr_getter = description;
     }
 
     /**
      * Gets the aliases of the command. Can be empty but not null.
      *
-     * @return The aliases.
+     * @return The unmodifiable aliases.
      */
     public @NotNull List<String> get_aliases()
     {
@@ -190,7 +238,7 @@ public class Command<S> implements ResourceNameable
      */
     public void set_aliases(@NotNull List<String> aliases)
     {
-        this.aliases = aliases;
+        this.aliases = aliases.isEmpty() ? Collections.emptyList() : aliases.stream().map(String::intern).collect(Collectors.toUnmodifiableList());
     }
 
     /**
@@ -220,7 +268,7 @@ public class Command<S> implements ResourceNameable
      */
     public void set_required_permission(String required_permission)
     {
-        this.required_permission = required_permission;
+        this.required_permission = required_permission == null ? null : required_permission.intern();
     }
 
     /**
@@ -230,6 +278,7 @@ public class Command<S> implements ResourceNameable
      */
     public CommandExecutor<S> get_executor()
     {
+        materialize();
         return this.executor;
     }
 
@@ -241,6 +290,7 @@ public class Command<S> implements ResourceNameable
     public void set_executor(@NotNull CommandExecutor<S> executor)
     {
         Objects.requireNonNull(executor, "Command executor cannot be null.");
+        materialize();
         this.executor = executor;
     }
 
@@ -251,6 +301,7 @@ public class Command<S> implements ResourceNameable
      */
     public CommandTabCompleter<S> get_tab_completer()
     {
+        materialize();
         return this.tab_completer;
     }
 
@@ -262,9 +313,60 @@ public class Command<S> implements ResourceNameable
     public void set_tab_completer(@NotNull CommandTabCompleter<S> tab_completer)
     {
         Objects.requireNonNull(tab_completer, "Command tab completer cannot be null.");
+        materialize();
         this.tab_completer = tab_completer;
     }
 
+    /**
+     * Gets the time budget of an execution of the command.
+     *
+     * @param unit The time unit.
+     * @return The time budget, 0 if the executions are not watched.
+     */
+    public long get_time_budget(@NotNull TimeUnit unit)
+    {
+        materialize();
+        return unit.convert(this.time_budget, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Sets the time budget of an execution of the command.
+     * <p>If the time budget is positive, the executions are watched by the watchdog of the command.</p>
+     *
+     * @param time_budget The time budget, 0 to not watch the executions.
+     * @param unit        The time unit.
+     * @see CommandWatchdog
+     */
+    public void set_time_budget(long time_budget, @NotNull TimeUnit unit)
+    {
+        if (time_budget < 0)
+            throw new IllegalArgumentException("Time budget cannot be negative.");
+        materialize();
+        this.time_budget = unit.toNanos(time_budget);
+    }
+
+    /**
+     * Gets the watchdog of the command.
+     *
+     * @return The watchdog.
+     */
+    public @NotNull CommandWatchdog get_watchdog()
+    {
+        materialize();
+        return this.watchdog == null ? CommandWatchdog.get_default() : this.watchdog;
+    }
+
+    /**
+     * Sets the watchdog of the command.
+     *
+     * @param watchdog The watchdog, null to use the default watchdog.
+     */
+    public void set_watchdog(@Nullable CommandWatchdog watchdog)
+    {
+        materialize();
+        this.watchdog = watchdog;
+    }
+
     /**
      * Represents the execution process of the command.
      * <p>The {@code args} argument represents the arguments of the command and not the arguments of the parent command.</p>
@@ -276,64 +378,208 @@ public class Command<S> implements ResourceNameable
      */
     public @NotNull CommandResult execute(CommandContext<S> context, String label, String[] args)
     {
+        materialize();
+        if (time_budget > 0)
+            return get_watchdog().watch(this, context, label, args, time_budget, TimeUnit.NANOSECONDS);
         return executor.execute(context, this, label, args);
     }
 
     private final @NotNull CommandResult handle_local_execution(CommandContext<S> context, String label, String[] args)
     {
-        if (!context.has_permission(required_permission))
+        if (!check_permission(context))
             return CommandResult.ERROR_PERMISSION;
-        return execute(context, label, args);
+        if (!CommandEvents.is_recording())
+            return execute(context, label, args);
+        var event = new CommandExecutorEvent();
+        event.begin();
+        var result = execute(context, label, args);
+        event.end();
+        if (event.shouldCommit()) {
+            event.command = get_path();
+            event.label = label;
+            event.result = result.get_kind();
+            event.commit();
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether the sender has the permission required to execute this command.
+     *
+     * @param context The context of the command.
+     * @return True if the sender has the permission, else false.
+     */
+    boolean check_permission(CommandContext<S> context)
+    {
+        if (!CommandEvents.is_recording())
+            return context.has_permission(required_permission);
+        var event = new PermissionCheckEvent();
+        event.begin();
+        boolean granted = context.has_permission(required_permission);
+        event.end();
+        if (event.shouldCommit()) {
+            event.command = get_path();
+            event.permission = required_permission;
+            event.granted = granted;
+            event.commit();
+        }
+        return granted;
     }
 
     public final @NotNull Pair<CommandResult, String> handle_execution(CommandContext<S> context, String label, String[] args)
     {
-        CommandResult result;
-        var usage = get_usage(context.get_sender()).replace("<command>", get_name());
-        if (args.length == 0)
-            result = handle_local_execution(context, label, args);
-        else {
-            var sub_label = args[0];
-            var ocmd = get_sub_command(sub_label);
-            if (ocmd.isPresent()) {
-                var command = ocmd.get();
-                if (command.get_required_permission() != null && !context.has_permission(command.get_required_permission()))
-                    result = CommandResult.ERROR_PERMISSION;
-                else
-                    return command.handle_execution(context, sub_label, Arrays.copyOfRange(args, 1, args.length));
-                usage = get_name() + " " + command.get_usage(context.get_sender()).replace("<command>", command.get_name());
-            } else
-                result = handle_local_execution(context, label, args);
+        var event = CommandEvents.is_recording() ? new CommandDispatchEvent() : null;
+        boolean timed = event != null && event.isEnabled();
+        long start = 0;
+        if (timed) {
+            event.begin();
+            start = System.nanoTime();
+        }
+
+        var command = this;
+        var command_label = label;
+        CommandResult result = null;
+        while (args.length != 0) {
+            var sub_command = command.get_sub_command(args[0]);
+            if (!sub_command.isPresent())
+                break;
+            if (sub_command.get().get_required_permission() != null && !sub_command.get().check_permission(context)) {
+                result = CommandResult.ERROR_PERMISSION;
+                break;
+            }
+            command = sub_command.get();
+            command_label = args[0];
+            args = Arrays.copyOfRange(args, 1, args.length);
+        }
+
+        long lookup_end = timed ? System.nanoTime() : 0;
+        if (result == null)
+            result = command.handle_local_execution(context, command_label, args);
+        if (timed) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.command = command.get_path();
+                event.label = label;
+                event.sender = context.get_sender_name();
+                event.result = result.get_kind();
+                event.lookup_time = lookup_end - start;
+                event.executor_time = System.nanoTime() - lookup_end;
+                event.commit();
+            }
         }
 
         if (result == CommandResult.ERROR_USAGE)
-            return new Pair<>(result, usage);
+            return new Pair<>(result, command.get_usage(context.get_sender()).replace("<command>", command.get_name()));
 
         return new Pair<>(result, null);
     }
 
     public List<String> on_tab_complete(CommandContext<S> context, String label, String[] args)
     {
-        if (args.length == 1) {
-            var subCommands = get_sub_commands();
-            if (subCommands.isEmpty())
-                return tab_completer.on_tab_complete(context, this, label, args);
-            var sub_cmds_str = subCommands.stream()
-                    .filter(sc -> context.has_permission(sc.get_required_permission()))
-                    .map(Nameable::get_name)
-                    .collect(Collectors.toList());
-            var additional_completion = tab_completer.on_tab_complete(context, this, label, args);
-            if (additional_completion != null && !additional_completion.isEmpty())
-                sub_cmds_str.addAll(additional_completion);
-            return sub_cmds_str.stream().filter(sc -> sc.startsWith(args[0])).sorted().collect(Collectors.toList());
-        } else if (args.length > 1) {
-            var subCommand = get_sub_command(args[0]);
-            if (subCommand.isPresent()) {
-                if (context.has_permission(subCommand.get().get_required_permission()))
-                    return subCommand.get().on_tab_complete(context, label, Arrays.copyOfRange(args, 1, args.length));
+        if (!CommandEvents.is_recording())
+            return tab_complete(resolve_completion(context, args), context, label);
+        var event = new TabCompleteEvent();
+        event.begin();
+        var target = resolve_completion(context, args);
+        var completions = tab_complete(target, context, label);
+        var command = target.getKey();
+        event.end();
+        if (event.shouldCommit()) {
+            event.command = command.get_path();
+            event.arguments = args.length;
+            event.completions = completions == null ? 0 : completions.size();
+            event.commit();
+        }
+        return completions;
+    }
+
+    private static <S> List<String> tab_complete(@NotNull Map.Entry<Command<S>, String[]> target, CommandContext<S> context, String label)
+    {
+        var command = target.getKey();
+        var command_args = target.getValue();
+        return command.complete_locally(context, command_args, Collections.singletonList(command.get_tab_completer().on_tab_complete(context, command, label, command_args)));
+    }
+
+    /**
+     * Resolves the command which completes the specified arguments and the arguments relative to it.
+     *
+     * @param context The context of the tab completion.
+     * @param args    The arguments of the command.
+     * @return The command which completes the arguments and its arguments.
+     */
+    @NotNull Map.Entry<Command<S>, String[]> resolve_completion(CommandContext<S> context, String[] args)
+    {
+        var command = this;
+        while (args.length > 1) {
+            var sub_command = command.get_sub_command(args[0]);
+            if (!sub_command.isPresent() || !sub_command.get().check_permission(context))
+                break;
+            command = sub_command.get();
+            args = Arrays.copyOfRange(args, 1, args.length);
+        }
+        return Map.entry(command, args);
+    }
+
+    /**
+     * Merges the completions of the tab completers of this command with its sub-commands.
+     *
+     * @param context     The context of the tab completion.
+     * @param args        The arguments of the command.
+     * @param completions The completions of the tab completers, may contain null.
+     * @return The completions.
+     */
+    @Nullable List<String> complete_locally(CommandContext<S> context, String[] args, @NotNull List<List<String>> completions)
+    {
+        return merge_completions(args, get_permitted_sub_commands(context, args), completions);
+    }
+
+    /**
+     * Gets the names of the sub-commands the sender is allowed to complete.
+     *
+     * @param context The context of the tab completion.
+     * @param args    The arguments of the command.
+     * @return The names of the permitted sub-commands, null if the arguments do not complete a sub-command.
+     */
+    @Nullable List<String> get_permitted_sub_commands(CommandContext<S> context, String[] args)
+    {
+        materialize();
+        if (args.length != 1 || sub_commands.length == 0)
+            return null;
+        return Arrays.stream(sub_commands)
+                .filter(sc -> sc.check_permission(context))
+                .map(Nameable::get_name)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Merges the completions of tab completers with the permitted sub-commands, touches neither the context nor the command tree.
+     *
+     * @param args         The arguments of the command.
+     * @param sub_commands The names of the permitted sub-commands, null if the arguments do not complete a sub-command.
+     * @param completions  The completions of the tab completers, may contain null.
+     * @return The completions.
+     */
+    static @Nullable List<String> merge_completions(String[] args, @Nullable List<String> sub_commands, @NotNull List<List<String>> completions)
+    {
+        List<String> merged = null;
+        if (completions.size() == 1)
+            merged = completions.get(0);
+        else {
+            for (var completion : completions) {
+                if (completion == null)
+                    continue;
+                if (merged == null)
+                    merged = new ArrayList<>();
+                merged.addAll(completion);
             }
         }
-        return tab_completer.on_tab_complete(context, this, label, args);
+        if (sub_commands != null) {
+            var sub_cmds_str = new ArrayList<>(sub_commands);
+            if (merged != null && !merged.isEmpty())
+                sub_cmds_str.addAll(merged);
+            return sub_cmds_str.stream().filter(sc -> sc.startsWith(args[0])).sorted().collect(Collectors.toList());
+        }
+        return merged;
     }
 
     /**
@@ -343,12 +589,15 @@ public class Command<S> implements ResourceNameable
      */
     public void add_sub_command(@NotNull Command<S> sub_commmand)
     {
+        materialize();
         if (sub_commmand.has_parent())
             return;
-        if (sub_commands.contains(sub_commmand))
+        if (has_sub_command(sub_commmand))
             return;
         sub_commmand.set_parent(this);
-        sub_commands.add(sub_commmand);
+        var sub_commands = Arrays.copyOf(this.sub_commands, this.sub_commands.length + 1);
+        sub_commands[sub_commands.length - 1] = sub_commmand;
+        this.sub_commands = sub_commands;
     }
 
     /**
@@ -362,7 +611,7 @@ public class Command<S> implements ResourceNameable
      */
     public void add_sub_command(@NotNull ResourceName name, @NotNull String usage, @NotNull String description, @NotNull CommandExecutor<S> executor, @Nullable CommandTabCompleter<S> tab_completer)
     {
-        add_sub_command(name, usage, description, null, new ArrayList<>(), executor, tab_completer);
+        add_sub_command(name, usage, description, null, Collections.emptyList(), executor, tab_completer);
     }
 
     /**
@@ -389,6 +638,20 @@ public class Command<S> implements ResourceNameable
         add_sub_command(command);
     }
 
+    /**
+     * Adds a new command to the command whose definition is deferred until it is first dispatched or completed.
+     *
+     * @param name       The name of the command.
+     * @param permission The permission required to execute the command, may be null.
+     * @param aliases    The aliases of the command.
+     * @param factory    The factory which builds the command and its sub-commands.
+     * @see LazyCommand
+     */
+    public void add_sub_command(@NotNull ResourceName name, @Nullable String permission, @NotNull List<String> aliases, @NotNull Supplier<Command<S>> factory)
+    {
+        add_sub_command(new LazyCommand<>(name, permission, aliases, factory));
+    }
+
     /**
      * Checks whether the command has the specified command.
      *
@@ -397,7 +660,12 @@ public class Command<S> implements ResourceNameable
      */
     public boolean has_sub_command(@NotNull Command<S> sub_command)
     {
-        return sub_commands.contains(sub_command);
+        materialize();
+        for (var command : sub_commands) {
+            if (command == sub_command)
+                return true;
+        }
+        return false;
     }
 
     /**
@@ -408,8 +676,7 @@ public class Command<S> implements ResourceNameable
      */
     public boolean has_sub_command(@NotNull String label)
     {
-        var final_label = label.toLowerCase();
-        return sub_commands.stream().anyMatch(cmd -> cmd.get_name().equalsIgnoreCase(final_label) || cmd.get_aliases().contains(final_label));
+        return get_sub_command(label).isPresent();
     }
 
     /**
@@ -419,7 +686,15 @@ public class Command<S> implements ResourceNameable
      */
     public void remove_sub_command(@NotNull Command<S> sub_command)
     {
-        sub_commands.remove(sub_command);
+        materialize();
+        for (int i = 0; i < sub_commands.length; i++) {
+            if (sub_commands[i] == sub_command) {
+                var sub_commands = Arrays.copyOf(this.sub_commands, this.sub_commands.length - 1);
+                System.arraycopy(this.sub_commands, i + 1, sub_commands, i, sub_commands.length - i);
+                this.sub_commands = sub_commands;
+                return;
+            }
+        }
     }
 
     /**
@@ -429,9 +704,31 @@ public class Command<S> implements ResourceNameable
      * @return The optional command.
      */
     public @NotNull Optional<Command<S>> get_sub_command(@NotNull String label)
+    {
+        materialize();
+        if (!CommandEvents.is_recording())
+            return Optional.ofNullable(find_sub_command(label));
+        var event = new SubCommandLookupEvent();
+        event.begin();
+        var result = find_sub_command(label);
+        event.end();
+        if (event.shouldCommit()) {
+            event.command = get_path();
+            event.label = label;
+            event.found = result != null;
+            event.commit();
+        }
+        return Optional.ofNullable(result);
+    }
+
+    private @Nullable Command<S> find_sub_command(@NotNull String label)
     {
         var final_label = label.toLowerCase();
-        return sub_commands.stream().filter(cmd -> cmd.get_name().equalsIgnoreCase(final_label) || cmd.get_aliases().contains(final_label)).findFirst();
+        for (var command : sub_commands) {
+            if (command.get_name().equalsIgnoreCase(final_label) || command.get_aliases().contains(final_label))
+                return command;
+        }
+        return null;
     }
 
     /**
@@ -441,7 +738,18 @@ public class Command<S> implements ResourceNameable
      */
     public @NotNull List<Command<S>> get_sub_commands()
     {
-        return new ArrayList<>(sub_commands);
+        materialize();
+        return new ArrayList<>(Arrays.asList(sub_commands));
+    }
+
+    /**
+     * Gets the path of the command, the names of its parents and its name separated by spaces.
+     *
+     * @return The path of the command.
+     */
+    @NotNull String get_path()
+    {
+        return parent == null ? get_name() : parent.get_path() + " " + get_name();
     }
 
     @Override
@@ -462,9 +770,10 @@ public class Command<S> implements ResourceNameable
                 ", descr_getter=" + descr_getter +
                 ", aliases=" + aliases +
                 ", required_permission='" + required_permission + '\'' +
-                ", sub_commands=" + sub_commands +
+                ", sub_commands=" + Arrays.toString(sub_commands) +
                 ", executor=" + executor +
                 ", tab_completer=" + tab_completer +
+                ", time_budget=" + time_budget +
                 '}';
     }
 }
\ No newline at end of file
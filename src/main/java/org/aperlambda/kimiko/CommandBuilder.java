@@ -13,17 +13,18 @@ import org.aperlambda.lambdacommon.resources.ResourceName;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 /**
  * Represents an instance builder of a {@link Command}
  *
  * @param <S> The typename of the sender.
- * @version 1.1.0
+ * @version 1.2.0
  * @since 1.0.0
  */
 public class CommandBuilder<S>
@@ -33,11 +34,14 @@ public class CommandBuilder<S>
     private                Function<S, String>    usage_getter;
     private                String                 description         = "";
     private                Function<S, String>    descr_getter;
-    private @NotNull       List<String>           aliases             = new ArrayList<>();
+    private @NotNull       List<String>           aliases             = Collections.emptyList();
     private @Nullable      String                 required_permission = null;
     private                CommandExecutor<S>     executor;
     @SuppressWarnings("unchecked")
     private                CommandTabCompleter<S> tab_completer       = (CommandTabCompleter<S>) Command.DEFAULT_TAB_COMPLETER;
+    private                long                   time_budget         = 0;
+    private                TimeUnit               time_budget_unit    = TimeUnit.MILLISECONDS;
+    private @Nullable      CommandWatchdog        watchdog            = null;
 
     public CommandBuilder(@NotNull ResourceName name)
     {
@@ -164,6 +168,37 @@ public class CommandBuilder<S>
         return this;
     }
 
+    /**
+     * Sets the time budget of an execution of the command.
+     *
+     * @param time_budget The time budget, 0 to not watch the executions.
+     * @param unit        The time unit.
+     * @return The current builder.
+     * @see Command#set_time_budget(long, TimeUnit)
+     */
+    public CommandBuilder<S> time_budget(long time_budget, @NotNull TimeUnit unit)
+    {
+        Objects.requireNonNull(unit, "Time unit cannot be null.");
+        if (time_budget < 0)
+            throw new IllegalArgumentException("Time budget cannot be negative.");
+        this.time_budget = time_budget;
+        this.time_budget_unit = unit;
+        return this;
+    }
+
+    /**
+     * Sets the watchdog of the command.
+     *
+     * @param watchdog The watchdog, null to use the default watchdog.
+     * @return The current builder.
+     * @see Command#set_watchdog(CommandWatchdog)
+     */
+    public CommandBuilder<S> watchdog(@Nullable CommandWatchdog watchdog)
+    {
+        this.watchdog = watchdog;
+        return this;
+    }
+
     /**
      * Creates a new instance of {@link Command}.
      *
@@ -182,6 +217,8 @@ public class CommandBuilder<S>
         command.set_aliases(aliases);
         command.set_executor(executor);
         command.set_tab_completer(tab_completer);
+        command.set_time_budget(time_budget, time_budget_unit);
+        command.set_watchdog(watchdog);
         return command;
     }
 }
\ No newline at end of file
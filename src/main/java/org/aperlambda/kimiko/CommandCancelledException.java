@@ -0,0 +1,24 @@
+/*
+ * Copyright © 2019 LambdAurora <aurora42lambda@gmail.com>
+ *
+ * This file is part of kimiko.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package org.aperlambda.kimiko;
+
+/**
+ * Thrown by {@link CommandExecution#check_cancelled()} when the execution of a command has been cancelled.
+ *
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class CommandCancelledException extends RuntimeException
+{
+    public CommandCancelledException(String message)
+    {
+        super(message);
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright © 2019 LambdAurora <aurora42lambda@gmail.com>
+ *
+ * This file is part of kimiko.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package org.aperlambda.kimiko;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Represents a loader of declaratively-defined commands.
+ *
+ * @param <S> The typename of the sender.
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+@FunctionalInterface
+public interface CommandDefinitionLoader<S>
+{
+    /**
+     * Loads the commands defined in the specified file.
+     *
+     * @param file The definition file.
+     * @return The commands defined in the file.
+     * @throws IOException If the file cannot be read.
+     */
+    @NotNull List<Command<S>> load(@NotNull Path file) throws IOException;
+
+    /**
+     * Checks whether the specified file is a definition file handled by this loader.
+     *
+     * @param file The file to check.
+     * @return True if the file is handled by this loader, else false.
+     */
+    default boolean accepts(@NotNull Path file)
+    {
+        return true;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright © 2019 LambdAurora <aurora42lambda@gmail.com>
+ *
+ * This file is part of kimiko.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package org.aperlambda.kimiko;
+
+import org.aperlambda.lambdacommon.resources.ResourceName;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Represents a watcher of a directory of command definition files.
+ * <p>Each time a definition file is created, modified or deleted, the commands of the directory are loaded again and swapped in the manager with a {@link CommandReload}.
+ * The commands registered by other means are kept, and if the new definitions are invalid the previous ones stay in place.
+ * A definition which has the name of a command registered by other means replaces it until the definition is removed, then the command is restored.</p>
+ * <p>The loading failures are passed to the error handler.</p>
+ *
+ * @param <S> The typename of the sender.
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class CommandDefinitionWatcher<S> implements Closeable
+{
+    private static final long DEBOUNCE_MILLIS = 100;
+
+    private final @NotNull ReloadableCommandManager<S>   manager;
+    private final @NotNull Path                          directory;
+    private final @NotNull CommandDefinitionLoader<S>    loader;
+    private final @NotNull Consumer<Exception>           error_handler;
+    private final          WatchService                  watch_service;
+    private final          Thread                        thread;
+    private                Map<ResourceName, Command<S>> loaded        = Collections.emptyMap();
+    private                Map<ResourceName, Command<S>> replaced      = Collections.emptyMap();
+
+    public CommandDefinitionWatcher(@NotNull ReloadableCommandManager<S> manager, @NotNull Path directory, @NotNull CommandDefinitionLoader<S> loader,
+                                    @NotNull Consumer<Exception> error_handler) throws IOException
+    {
+        this.manager = Objects.requireNonNull(manager, "Command manager cannot be null.");
+        this.directory = Objects.requireNonNull(directory, "Directory cannot be null.");
+        this.loader = Objects.requireNonNull(loader, "Definition loader cannot be null.");
+        this.error_handler = Objects.requireNonNull(error_handler, "Error handler cannot be null.");
+        this.watch_service = directory.getFileSystem().newWatchService();
+        this.thread = new Thread(this::run, "kimiko-definition-watcher");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Loads the definitions and starts watching the directory.
+     *
+     * @throws IOException If the directory cannot be watched.
+     */
+    public void start() throws IOException
+    {
+        directory.register(watch_service, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        reload();
+        thread.start();
+    }
+
+    /**
+     * Loads the definitions of the directory and swaps them in the manager.
+     * <p>On failure the error handler is notified and the current commands are kept.</p>
+     */
+    public synchronized void reload()
+    {
+        try {
+            var commands = load_definitions();
+            CommandReload<S> reload;
+            Map<ResourceName, Command<S>> loaded;
+            Map<ResourceName, Command<S>> replaced;
+            do {
+                reload = manager.begin_reload(true);
+                loaded = new LinkedHashMap<>();
+                replaced = new HashMap<>(this.replaced);
+                for (var entry : this.loaded.entrySet()) {
+                    var previous = replaced.remove(entry.getKey());
+                    // A command registered meanwhile by other means under the same name is left in place.
+                    if (reload.get_command(entry.getKey()).orElse(null) != entry.getValue())
+                        continue;
+                    if (previous == null)
+                        reload.unregister(entry.getKey());
+                    else
+                        reload.register(previous);
+                }
+                for (var command : commands) {
+                    var name = command.get_resource_name();
+                    var previous = reload.get_command(name);
+                    if (!loaded.containsKey(name) && previous.isPresent())
+                        replaced.put(name, previous.get());
+                    loaded.put(name, command);
+                    reload.register(command);
+                }
+            } while (!reload.commit());
+            this.loaded = loaded;
+            this.replaced = replaced;
+        } catch (IOException | RuntimeException e) {
+            error_handler.accept(e);
+        }
+    }
+
+    private @NotNull List<Command<S>> load_definitions() throws IOException
+    {
+        var commands = new ArrayList<Command<S>>();
+        try (var files = Files.list(directory)) {
+            for (var file : files.filter(Files::isRegularFile).filter(loader::accepts).sorted().collect(Collectors.toList()))
+                commands.addAll(loader.load(file));
+        }
+        return commands;
+    }
+
+    private void run()
+    {
+        try {
+            while (true) {
+                var key = watch_service.take();
+                boolean changed = poll_events(key);
+                // Editors often write a file in several steps, waits for the burst to end before reloading.
+                while ((key = watch_service.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null)
+                    changed |= poll_events(key);
+                if (changed)
+                    reload();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // The watcher is closed.
+        }
+    }
+
+    private boolean poll_events(@NotNull WatchKey key)
+    {
+        boolean changed = false;
+        for (var event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW || (event.context() instanceof Path && loader.accepts(directory.resolve((Path) event.context()))))
+                changed = true;
+        }
+        key.reset();
+        return changed;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        thread.interrupt();
+        watch_service.close();
+    }
+}
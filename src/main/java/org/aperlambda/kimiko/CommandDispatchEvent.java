@@ -0,0 +1,50 @@
+/*
+ * Copyright © 2019 LambdAurora <aurora42lambda@gmail.com>
+ *
+ * This file is part of kimiko.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package org.aperlambda.kimiko;
+
+import jdk.jfr.*;
+
+/**
+ * Represents a Flight Recorder event of a command dispatch, from the root command to the result.
+ *
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+@Name("kimiko.CommandDispatch")
+@Label("Command Dispatch")
+@Category("Kimiko")
+@Description("Dispatch of a command, including the sub-command lookup, the permission checks and the executor.")
+@Enabled(false)
+@StackTrace(false)
+final class CommandDispatchEvent extends Event
+{
+    @Label("Command")
+    @Description("Path of the resolved command.")
+    String command;
+
+    @Label("Label")
+    String label;
+
+    @Label("Sender")
+    String sender;
+
+    @Label("Result")
+    String result;
+
+    @Label("Lookup Time")
+    @Description("Time spent resolving the sub-commands and checking their permissions.")
+    @Timespan(Timespan.NANOSECONDS)
+    long lookup_time;
+
+    @Label("Executor Time")
+    @Description("Time spent in the executor of the resolved command.")
+    @Timespan(Timespan.NANOSECONDS)
+    long executor_time;
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright © 2019 LambdAurora <aurora42lambda@gmail.com>
+ *
+ * This file is part of kimiko.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package org.aperlambda.kimiko;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Guards the creation of the Flight Recorder events of kimiko.
+ * <p>Loading a Flight Recorder event class while the recorder is not initialized is expensive (hundreds of milliseconds),
+ * so no event is created until a recording has been started in the JVM.</p>
+ *
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+final class CommandEvents
+{
+    private CommandEvents()
+    {
+    }
+
+    /**
+     * Checks whether the Flight Recorder is initialized, in which case the events may be enabled.
+     *
+     * @return True if the events can be recorded, else false.
+     */
+    static boolean is_recording()
+    {
+        return FlightRecorder.isInitialized();
+    }
+}
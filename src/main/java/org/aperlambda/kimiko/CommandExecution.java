@@ -0,0 +1,204 @@
+/*
+ * Copyright © 2019 LambdAurora <aurora42lambda@gmail.com>
+ *
+ * This file is part of kimiko.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package org.aperlambda.kimiko;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Represents a command execution watched by a {@link CommandWatchdog}.
+ * <p>Cancellation is cooperative: long running executors should check {@link #is_cancelled()}
+ * or call {@link #check_cancelled()} on the execution returned by {@link #current()}.</p>
+ *
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public final class CommandExecution
+{
+    private static final ThreadLocal<CommandExecution> CURRENT = new ThreadLocal<>();
+
+    private final @NotNull Command<?>                command;
+    private final          String                    label;
+    private final          String[]                  args;
+    private final @NotNull Thread                    thread;
+    private final          long                      start;
+    private final          long                      time_budget;
+    private final @NotNull List<StackTraceElement[]> samples   = new ArrayList<>();
+    private volatile       boolean                   cancelled = false;
+    private volatile       boolean                   finished  = false;
+
+    CommandExecution(@NotNull Command<?> command, String label, String[] args, long time_budget)
+    {
+        this.command = command;
+        this.label = label;
+        this.args = args;
+        this.thread = Thread.currentThread();
+        this.start = System.nanoTime();
+        this.time_budget = time_budget;
+    }
+
+    /**
+     * Gets the execution running on the current thread.
+     *
+     * @return The optional execution.
+     */
+    public static @NotNull Optional<CommandExecution> current()
+    {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    static @Nullable CommandExecution enter(@NotNull CommandExecution execution)
+    {
+        var previous = CURRENT.get();
+        CURRENT.set(execution);
+        return previous;
+    }
+
+    static void exit(@Nullable CommandExecution previous)
+    {
+        if (previous == null)
+            CURRENT.remove();
+        else
+            CURRENT.set(previous);
+    }
+
+    /**
+     * Gets the executed command.
+     *
+     * @return The command.
+     */
+    public @NotNull Command<?> get_command()
+    {
+        return command;
+    }
+
+    /**
+     * Gets the label used to call the command.
+     *
+     * @return The label.
+     */
+    public String get_label()
+    {
+        return label;
+    }
+
+    /**
+     * Gets the arguments of the command.
+     *
+     * @return The arguments.
+     */
+    public String[] get_args()
+    {
+        return args.clone();
+    }
+
+    /**
+     * Gets the thread running the execution.
+     *
+     * @return The thread.
+     */
+    public @NotNull Thread get_thread()
+    {
+        return thread;
+    }
+
+    /**
+     * Gets the time elapsed since the start of the execution.
+     *
+     * @param unit The time unit.
+     * @return The elapsed time.
+     */
+    public long get_elapsed(@NotNull TimeUnit unit)
+    {
+        return unit.convert(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the time budget of the execution.
+     *
+     * @param unit The time unit.
+     * @return The time budget.
+     */
+    public long get_time_budget(@NotNull TimeUnit unit)
+    {
+        return unit.convert(time_budget, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Checks whether the execution has been cancelled or not.
+     *
+     * @return True if cancelled, else false.
+     */
+    public boolean is_cancelled()
+    {
+        return cancelled;
+    }
+
+    /**
+     * Throws a {@link CommandCancelledException} if the execution has been cancelled.
+     *
+     * @throws CommandCancelledException If the execution has been cancelled.
+     */
+    public void check_cancelled()
+    {
+        if (cancelled)
+            throw new CommandCancelledException("Execution of command '" + command.get_name() + "' cancelled after exceeding its time budget of "
+                    + get_time_budget(TimeUnit.MILLISECONDS) + "ms.");
+    }
+
+    /**
+     * Cancels the execution.
+     */
+    public void cancel()
+    {
+        cancelled = true;
+    }
+
+    /**
+     * Checks whether the execution is finished or not.
+     *
+     * @return True if finished, else false.
+     */
+    public boolean is_finished()
+    {
+        return finished;
+    }
+
+    void finish()
+    {
+        finished = true;
+    }
+
+    /**
+     * Gets the stack samples taken while the execution was stalled.
+     *
+     * @return The stack samples, the oldest first.
+     */
+    public @NotNull List<StackTraceElement[]> get_stack_samples()
+    {
+        synchronized (samples) {
+            return new ArrayList<>(samples);
+        }
+    }
+
+    boolean sample(int max_samples)
+    {
+        synchronized (samples) {
+            if (samples.size() >= max_samples)
+                return false;
+            return samples.add(thread.getStackTrace());
+        }
+    }
+}
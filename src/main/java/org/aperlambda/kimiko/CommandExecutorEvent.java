@@ -0,0 +1,36 @@
+/*
+ * Copyright © 2019 LambdAurora <aurora42lambda@gmail.com>
+ *
+ * This file is part of kimiko.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package org.aperlambda.kimiko;
+
+import jdk.jfr.*;
+
+/**
+ * Represents a Flight Recorder event of the execution of a command executor.
+ *
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+@Name("kimiko.CommandExecutor")
+@Label("Command Executor")
+@Category("Kimiko")
+@Description("Time spent in a command executor.")
+@Enabled(false)
+@StackTrace(false)
+final class CommandExecutorEvent extends Event
+{
+    @Label("Command")
+    String command;
+
+    @Label("Label")
+    String label;
+
+    @Label("Result")
+    String result;
+}
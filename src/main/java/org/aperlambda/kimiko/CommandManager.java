@@ -10,15 +10,19 @@
 package org.aperlambda.kimiko;
 
 import org.aperlambda.lambdacommon.resources.ResourceName;
+import org.aperlambda.lambdacommon.utils.Pair;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * Represents a manager for commands.
  *
  * @param <S> The typename of the sender.
- * @version 1.1.0
+ * @version 1.2.0
  * @since 1.0.0
  */
 public abstract class CommandManager<S>
@@ -32,4 +36,45 @@ public abstract class CommandManager<S>
     public abstract List<Command<S>> get_commands();
 
     public abstract void clear_commands();
-}
\ No newline at end of file
+
+    /**
+     * Registers a command whose definition is deferred until it is first dispatched or completed.
+     *
+     * @param name       The name of the command.
+     * @param permission The permission required to execute the command, may be null.
+     * @param aliases    The aliases of the command.
+     * @param factory    The factory which builds the command and its sub-commands.
+     * @see LazyCommand
+     */
+    public void register(@NotNull ResourceName name, @Nullable String permission, @NotNull List<String> aliases, @NotNull Supplier<Command<S>> factory)
+    {
+        register(new LazyCommand<>(name, permission, aliases, factory));
+    }
+
+    /**
+     * Gets a command by it's name or alias.
+     *
+     * @param label The name or the alias of the command.
+     * @return The optional command.
+     */
+    public @NotNull Optional<Command<S>> get_command(@NotNull String label)
+    {
+        var final_label = label.toLowerCase();
+        return get_commands().stream().filter(cmd -> cmd.get_name().equalsIgnoreCase(final_label) || cmd.get_aliases().contains(final_label)).findFirst();
+    }
+
+    /**
+     * Dispatches the execution of a command.
+     *
+     * @param context The context of the command.
+     * @param label   The label used to call the command.
+     * @param args    The arguments of the command.
+     * @return The result of the execution of the command and the usage if the result is {@link CommandResult#ERROR_USAGE}.
+     * @see Command#handle_execution(CommandContext, String, String[])
+     */
+    public @NotNull Pair<CommandResult, String> dispatch(CommandContext<S> context, @NotNull String label, String[] args)
+    {
+        return get_command(label).map(command -> command.handle_execution(context, label, args))
+                .orElseGet(() -> new Pair<>(CommandResult.ERROR_NOT_FOUND, null));
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright © 2019 LambdAurora <aurora42lambda@gmail.com>
+ *
+ * This file is part of kimiko.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package org.aperlambda.kimiko;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Represents a receiver of batches of messages sent to a sender.
+ *
+ * @version 1.2.0
+ * @see BufferedCommandContext
+ * @since 1.2.0
+ */
+@FunctionalInterface
+public interface CommandMessageSink
+{
+    /**
+     * Delivers a batch of messages.
+     * <p>The list is reused once this method returns, it must be copied if it is kept.</p>
+     *
+     * @param messages The messages, never empty.
+     */
+    void send_messages(@NotNull List<String> messages);
+
+    /**
+     * Creates a sink which delivers each batch as a single message, the messages being joined with the specified separator.
+     *
+     * @param context   The context which receives the joined messages.
+     * @param separator The separator.
+     * @return The sink.
+     */
+    static @NotNull CommandMessageSink joining(@NotNull CommandContext<?> context, @NotNull String separator)
+    {
+        Objects.requireNonNull(context, "Context cannot be null.");
+        Objects.requireNonNull(separator, "Separator cannot be null.");
+        return messages -> context.send_message(String.join(separator, messages));
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright © 2019 LambdAurora <aurora42lambda@gmail.com>
+ *
+ * This file is part of kimiko.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package org.aperlambda.kimiko;
+
+import org.aperlambda.lambdacommon.resources.ResourceName;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Represents a reload transaction of a {@link ReloadableCommandManager}.
+ * <p>The new tree can be built from any thread, it is only visible to the dispatching threads once {@link #commit()} succeeds.</p>
+ *
+ * @param <S> The typename of the sender.
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class CommandReload<S>
+{
+    private final @NotNull  ReloadableCommandManager<S>   manager;
+    private final @Nullable CommandTree<S>                base;
+    private final @NotNull  Map<ResourceName, Command<S>> commands = new LinkedHashMap<>();
+    private                 boolean                       committed = false;
+
+    CommandReload(@NotNull ReloadableCommandManager<S> manager, @Nullable CommandTree<S> base)
+    {
+        this.manager = manager;
+        this.base = base;
+        if (base != null)
+            base.get_commands().forEach(command -> commands.put(command.get_resource_name(), command));
+    }
+
+    /**
+     * Registers a command in the new tree, replaces the command with the same name if present.
+     *
+     * @param command The command to register.
+     * @return The current transaction.
+     */
+    public CommandReload<S> register(@NotNull Command<S> command)
+    {
+        Objects.requireNonNull(command, "Command cannot be null.");
+        check_not_committed();
+        commands.put(command.get_resource_name(), command);
+        return this;
+    }
+
+    /**
+     * Unregisters a command from the new tree.
+     *
+     * @param name The name of the command.
+     * @return The current transaction.
+     */
+    public CommandReload<S> unregister(@NotNull ResourceName name)
+    {
+        check_not_committed();
+        commands.remove(name);
+        return this;
+    }
+
+    /**
+     * Checks whether the new tree has the specified command.
+     *
+     * @param name The name of the command.
+     * @return True if found, else false.
+     */
+    public boolean has_command(@NotNull ResourceName name)
+    {
+        return commands.containsKey(name);
+    }
+
+    /**
+     * Gets a command of the new tree by it's name.
+     *
+     * @param name The name of the command.
+     * @return The optional command.
+     */
+    public @NotNull Optional<Command<S>> get_command(@NotNull ResourceName name)
+    {
+        return Optional.ofNullable(commands.get(name));
+    }
+
+    /**
+     * Validates the new tree.
+     *
+     * @return The problems found, empty if the new tree is valid.
+     * @see CommandTree#validate(java.util.Collection)
+     */
+    public @NotNull List<String> validate()
+    {
+        return CommandTree.validate(commands.values());
+    }
+
+    /**
+     * Validates the new tree and swaps it in atomically.
+     * <p>If the transaction started from the current tree and the tree has changed since, nothing is swapped and the transaction can be retried with a new one.</p>
+     *
+     * @return True if the new tree has been swapped in, else false.
+     * @throws IllegalStateException If the new tree is invalid or if the transaction is already committed.
+     */
+    public boolean commit()
+    {
+        check_not_committed();
+        var problems = validate();
+        if (!problems.isEmpty())
+            throw new IllegalStateException("Invalid command tree: " + String.join(" ", problems));
+        committed = manager.swap(base, new CommandTree<>(commands));
+        return committed;
+    }
+
+    private void check_not_committed()
+    {
+        if (committed)
+            throw new IllegalStateException("Reload transaction already committed.");
+    }
+}
@@ -10,9 +10,12 @@
 package org.aperlambda.kimiko;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 
 /**
  * Represents the result of a command.
@@ -23,13 +26,77 @@ public class CommandResult
     public static final CommandResult ERROR_PERMISSION = new CommandResult(() -> "translate:error.permission");
     public static final CommandResult ERROR_USAGE      = new CommandResult(() -> "translate:error.usage");
     public static final CommandResult ERROR_RUNTIME    = new CommandResult(() -> "translate:error.runtime");
+    public static final CommandResult ERROR_NOT_FOUND  = new CommandResult(() -> "translate:error.not_found");
+    public static final CommandResult ERROR_BUSY       = new CommandResult(() -> "translate:error.busy");
 
-    private final @NotNull Callable<String> callable;
+    private final @NotNull  Callable<String> callable;
+    private final @Nullable Throwable        exception;
 
     public CommandResult(@NotNull Callable<String> callable)
+    {
+        this(callable, null);
+    }
+
+    private CommandResult(@NotNull Callable<String> callable, @Nullable Throwable exception)
     {
         Objects.requireNonNull(callable, "Result's handler cannot be null.");
         this.callable = callable;
+        this.exception = exception;
+    }
+
+    /**
+     * Creates a result equivalent to {@link #ERROR_RUNTIME} which keeps the exception that caused it.
+     * <p>As the result is a new instance, use {@link #is_runtime_error()} instead of comparing it to {@link #ERROR_RUNTIME}.</p>
+     *
+     * @param exception The exception that caused the error.
+     * @return The result.
+     */
+    public static @NotNull CommandResult runtime_error(@NotNull Throwable exception)
+    {
+        Objects.requireNonNull(exception, "Exception cannot be null.");
+        return new CommandResult(ERROR_RUNTIME.callable, exception);
+    }
+
+    /**
+     * Checks whether the result is a runtime error or not.
+     *
+     * @return True if the result is {@link #ERROR_RUNTIME} or has been created by {@link #runtime_error(Throwable)}, else false.
+     */
+    public boolean is_runtime_error()
+    {
+        return this == ERROR_RUNTIME || exception != null;
+    }
+
+    /**
+     * Gets the exception that caused the result.
+     *
+     * @return The optional exception.
+     */
+    public @NotNull Optional<Throwable> get_exception()
+    {
+        return Optional.ofNullable(exception);
+    }
+
+    /**
+     * Gets the kind of the result, used by the Flight Recorder events.
+     *
+     * @return The kind of the result.
+     */
+    @NotNull String get_kind()
+    {
+        if (this == SUCCESS)
+            return "success";
+        else if (this == ERROR_PERMISSION)
+            return "error.permission";
+        else if (this == ERROR_USAGE)
+            return "error.usage";
+        else if (is_runtime_error())
+            return "error.runtime";
+        else if (this == ERROR_NOT_FOUND)
+            return "error.not_found";
+        else if (this == ERROR_BUSY)
+            return "error.busy";
+        return "custom";
     }
 
     /**
@@ -39,11 +106,25 @@ public class CommandResult
      * @return The result of the command.
      */
     public String call()
+    {
+        return call(e -> {});
+    }
+
+    /**
+     * Calls the result of the command.
+     * <p>If the result's handler fails, the exception is given to the error handler and the result of {@link #ERROR_RUNTIME} is returned.</p>
+     *
+     * @param error_handler The error handler.
+     * @return The result of the command.
+     * @see #call()
+     */
+    public String call(@NotNull Consumer<Exception> error_handler)
     {
         try {
             return callable.call();
         } catch (Exception e) {
-            return "";
+            error_handler.accept(e);
+            return this == ERROR_RUNTIME ? "" : ERROR_RUNTIME.call(error_handler);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,417 @@
+/*
+ * Copyright © 2019 LambdAurora <aurora42lambda@gmail.com>
+ *
+ * This file is part of kimiko.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package org.aperlambda.kimiko;
+
+import org.aperlambda.lambdacommon.utils.Pair;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+
+/**
+ * Represents a scheduler of delayed and repeating command executions, dispatched to a {@link CommandManager}.
+ * <p>The pending commands are kept in a hashed timer wheel: scheduling and cancelling are O(1) whatever the number of pending commands,
+ * at the cost of a precision of one tick. A single ticker thread advances the wheel, the commands due in the same tick are dispatched
+ * together as one batch, on the ticker thread or as a single task of the dispatch executor.</p>
+ *
+ * @param <S> The typename of the sender.
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class CommandScheduler<S> implements AutoCloseable
+{
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final @NotNull    CommandManager<S>                                           manager;
+    private final             long                                                        tick_duration;
+    private final @NotNull    Bucket<S>[]                                                 wheel;
+    private final             int                                                         mask;
+    private final @Nullable   Executor                                                    dispatch_executor;
+    private final @NotNull    Queue<ScheduledCommand<S>>                                  scheduled = new ConcurrentLinkedQueue<>();
+    private final @NotNull    Queue<ScheduledCommand<S>>                                  cancelled = new ConcurrentLinkedQueue<>();
+    private final @NotNull    AtomicInteger                                               pending   = new AtomicInteger();
+    private final @NotNull    Thread                                                      ticker;
+    private final             long                                                        start;
+    private volatile @NotNull ScheduledCommandStore<S>                                    store     = NoopStore.instance();
+    private volatile @NotNull BiConsumer<ScheduledCommand<S>, Pair<CommandResult, String>> result_handler = (command, result) -> {};
+    private volatile @NotNull BiConsumer<ScheduledCommand<S>, Throwable>                   error_handler  = (command, error) -> {};
+    private volatile          boolean                                                     closed    = false;
+    private                   long                                                        tick      = 0;
+
+    /**
+     * Creates a new scheduler which dispatches the commands on its ticker thread.
+     *
+     * @param manager       The command manager.
+     * @param tick_duration The duration of a tick, the precision of the scheduler.
+     * @param unit          The time unit of the tick duration.
+     * @param wheel_size    The number of buckets of the wheel, rounded up to a power of two.
+     */
+    public CommandScheduler(@NotNull CommandManager<S> manager, long tick_duration, @NotNull TimeUnit unit, int wheel_size)
+    {
+        this(manager, tick_duration, unit, wheel_size, null);
+    }
+
+    /**
+     * Creates a new scheduler.
+     *
+     * @param manager           The command manager.
+     * @param tick_duration     The duration of a tick, the precision of the scheduler.
+     * @param unit              The time unit of the tick duration.
+     * @param wheel_size        The number of buckets of the wheel, rounded up to a power of two.
+     * @param dispatch_executor The executor which dispatches the batches of commands, null to dispatch them on the ticker thread.
+     */
+    @SuppressWarnings("unchecked")
+    public CommandScheduler(@NotNull CommandManager<S> manager, long tick_duration, @NotNull TimeUnit unit, int wheel_size, @Nullable Executor dispatch_executor)
+    {
+        if (tick_duration <= 0)
+            throw new IllegalArgumentException("Tick duration must be positive.");
+        if (wheel_size <= 0 || wheel_size > 1 << 30)
+            throw new IllegalArgumentException("Wheel size must be between 1 and 2^30.");
+        this.manager = Objects.requireNonNull(manager, "Command manager cannot be null.");
+        this.tick_duration = unit.toNanos(tick_duration);
+        int size = Integer.highestOneBit(wheel_size) == wheel_size ? wheel_size : Integer.highestOneBit(wheel_size) << 1;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++)
+            this.wheel[i] = new Bucket<>();
+        this.mask = size - 1;
+        this.dispatch_executor = dispatch_executor;
+        this.start = System.nanoTime();
+        this.ticker = new Thread(this::run, "kimiko-scheduler");
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+    }
+
+    /**
+     * Sets the persistence hooks.
+     *
+     * @param store The persistence hooks.
+     */
+    public void set_store(@NotNull ScheduledCommandStore<S> store)
+    {
+        this.store = Objects.requireNonNull(store, "Store cannot be null.");
+    }
+
+    /**
+     * Sets the handler which receives the result of each execution, called on the thread which dispatched the command.
+     *
+     * @param result_handler The result handler.
+     */
+    public void set_result_handler(@NotNull BiConsumer<ScheduledCommand<S>, Pair<CommandResult, String>> result_handler)
+    {
+        this.result_handler = Objects.requireNonNull(result_handler, "Result handler cannot be null.");
+    }
+
+    /**
+     * Sets the handler which receives the throwables thrown by the command executors, the result handler, the store or the dispatch executor.
+     * <p>The command is null if the failure is not related to a specific command. By default the throwables are ignored,
+     * in any case they do not stop the scheduler.</p>
+     *
+     * @param error_handler The error handler.
+     */
+    public void set_error_handler(@NotNull BiConsumer<ScheduledCommand<S>, Throwable> error_handler)
+    {
+        this.error_handler = Objects.requireNonNull(error_handler, "Error handler cannot be null.");
+    }
+
+    /**
+     * Schedules a command to be executed once after the specified delay.
+     *
+     * @param context The context of the command.
+     * @param label   The label used to call the command.
+     * @param args    The arguments of the command.
+     * @param delay   The delay.
+     * @param unit    The time unit of the delay.
+     * @return The scheduled command.
+     */
+    public @NotNull ScheduledCommand<S> schedule(@NotNull CommandContext<S> context, @NotNull String label, @NotNull String[] args, long delay, @NotNull TimeUnit unit)
+    {
+        return schedule(context, label, args, System.nanoTime() + unit.toNanos(Math.max(delay, 0)), 0);
+    }
+
+    /**
+     * Schedules a command to be executed periodically.
+     *
+     * @param context       The context of the command.
+     * @param label         The label used to call the command.
+     * @param args          The arguments of the command.
+     * @param initial_delay The delay before the first execution.
+     * @param period        The period between the successive executions.
+     * @param unit          The time unit of the delay and the period.
+     * @return The scheduled command.
+     */
+    public @NotNull ScheduledCommand<S> schedule_at_fixed_rate(@NotNull CommandContext<S> context, @NotNull String label, @NotNull String[] args, long initial_delay, long period,
+                                                               @NotNull TimeUnit unit)
+    {
+        if (period <= 0)
+            throw new IllegalArgumentException("Period must be positive.");
+        return schedule(context, label, args, System.nanoTime() + unit.toNanos(Math.max(initial_delay, 0)), unit.toNanos(period));
+    }
+
+    /**
+     * Schedules a command to be executed at the specified time, typically to restore a persisted command.
+     *
+     * @param context  The context of the command.
+     * @param label    The label used to call the command.
+     * @param args     The arguments of the command.
+     * @param deadline The time of the next execution, in milliseconds since the epoch, a time in the past executes the command at the next tick.
+     * @param period   The period between the successive executions, 0 to execute the command only once.
+     * @param unit     The time unit of the period.
+     * @return The scheduled command.
+     * @see ScheduledCommand#get_deadline()
+     */
+    public @NotNull ScheduledCommand<S> schedule_at(@NotNull CommandContext<S> context, @NotNull String label, @NotNull String[] args, long deadline, long period, @NotNull TimeUnit unit)
+    {
+        if (period < 0)
+            throw new IllegalArgumentException("Period cannot be negative.");
+        long delay = TimeUnit.MILLISECONDS.toNanos(Math.max(deadline - System.currentTimeMillis(), 0));
+        return schedule(context, label, args, System.nanoTime() + delay, unit.toNanos(period));
+    }
+
+    private @NotNull ScheduledCommand<S> schedule(@NotNull CommandContext<S> context, @NotNull String label, @NotNull String[] args, long deadline, long period)
+    {
+        Objects.requireNonNull(context, "Context cannot be null.");
+        Objects.requireNonNull(label, "Label cannot be null.");
+        Objects.requireNonNull(args, "Arguments cannot be null.");
+        if (closed)
+            throw new IllegalStateException("Scheduler is closed.");
+        var command = new ScheduledCommand<>(this, context, label, args, deadline, period);
+        store.on_scheduled(command);
+        // Counted once the store accepted it, a failing store leaves nothing behind.
+        pending.incrementAndGet();
+        scheduled.add(command);
+        return command;
+    }
+
+    void on_cancel(@NotNull ScheduledCommand<S> command, boolean remove)
+    {
+        pending.decrementAndGet();
+        cancelled.add(command);
+        if (remove)
+            store.on_removed(command);
+    }
+
+    /**
+     * Gets the number of pending commands.
+     *
+     * @return The number of commands which are scheduled and neither cancelled nor done.
+     */
+    public int get_pending_count()
+    {
+        return pending.get();
+    }
+
+    private void run()
+    {
+        while (!closed) {
+            long tick_deadline = start + (tick + 1) * tick_duration;
+            long now;
+            while ((now = System.nanoTime()) < tick_deadline) {
+                LockSupport.parkNanos(this, tick_deadline - now);
+                if (closed)
+                    return;
+            }
+
+            try {
+                remove_cancelled();
+                transfer_scheduled();
+                var batch = expire(wheel[(int) (tick & mask)]);
+                if (!batch.isEmpty()) {
+                    if (dispatch_executor == null)
+                        dispatch(batch);
+                    else {
+                        try {
+                            dispatch_executor.execute(() -> dispatch(batch));
+                        } catch (RejectedExecutionException e) {
+                            report(null, e);
+                            // The batch is already out of the wheel, dispatches it here rather than losing it.
+                            dispatch(batch);
+                        }
+                    }
+                }
+            } catch (Throwable e) {
+                report(null, e);
+            }
+            tick++;
+        }
+    }
+
+    private void remove_cancelled()
+    {
+        ScheduledCommand<S> command;
+        while ((command = cancelled.poll()) != null) {
+            if (command.bucket != null)
+                command.bucket.remove(command);
+        }
+    }
+
+    private void transfer_scheduled()
+    {
+        ScheduledCommand<S> command;
+        // Limits the transfers so a burst of schedules does not delay the current tick too much, the remaining ones are transferred at the next ticks.
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK && (command = scheduled.poll()) != null; i++) {
+            if (!command.is_pending())
+                continue;
+            long calculated = Math.max((command.get_deadline_nanos() - start) / tick_duration, 0);
+            command.rounds = Math.max((calculated - tick) / wheel.length, 0);
+            wheel[(int) (Math.max(calculated, tick) & mask)].add(command);
+        }
+    }
+
+    private @NotNull List<ScheduledCommand<S>> expire(@NotNull Bucket<S> bucket)
+    {
+        var batch = new ArrayList<ScheduledCommand<S>>();
+        var command = bucket.head;
+        while (command != null) {
+            var next = command.next;
+            if (!command.is_pending())
+                bucket.remove(command);
+            else if (command.rounds <= 0) {
+                bucket.remove(command);
+                batch.add(command);
+            } else
+                command.rounds--;
+            command = next;
+        }
+        return batch;
+    }
+
+    private void dispatch(@NotNull List<ScheduledCommand<S>> batch)
+    {
+        for (var command : batch) {
+            if (!command.is_pending())
+                continue;
+            Pair<CommandResult, String> result;
+            try {
+                result = manager.dispatch(command.get_context(), command.get_label(), command.get_args());
+            } catch (Throwable e) {
+                result = new Pair<>(CommandResult.runtime_error(e), null);
+                report(command, e);
+            }
+
+            if (command.is_repeating() && !closed) {
+                command.set_deadline(command.get_deadline_nanos() + command.get_period_nanos());
+                // While rescheduling, a cancellation leaves the call of on_removed to this thread so it is always the last hook.
+                if (command.begin_reschedule()) {
+                    try {
+                        store.on_scheduled(command);
+                    } catch (Throwable e) {
+                        report(command, e);
+                    }
+                    if (command.end_reschedule())
+                        scheduled.add(command);
+                    else
+                        remove(command);
+                }
+            } else if (command.finish()) {
+                pending.decrementAndGet();
+                remove(command);
+            }
+            try {
+                result_handler.accept(command, result);
+            } catch (Throwable e) {
+                report(command, e);
+            }
+        }
+    }
+
+    private void remove(@NotNull ScheduledCommand<S> command)
+    {
+        try {
+            store.on_removed(command);
+        } catch (Throwable e) {
+            report(command, e);
+        }
+    }
+
+    private void report(@Nullable ScheduledCommand<S> command, @NotNull Throwable error)
+    {
+        try {
+            error_handler.accept(command, error);
+        } catch (Throwable e) {
+            // A failing error handler cannot stop the scheduler either.
+        }
+    }
+
+    /**
+     * Stops the scheduler, the pending commands are not executed and not removed from the store.
+     */
+    @Override
+    public void close()
+    {
+        closed = true;
+        LockSupport.unpark(ticker);
+    }
+
+    static final class Bucket<S>
+    {
+        private ScheduledCommand<S> head;
+        private ScheduledCommand<S> tail;
+
+        void add(@NotNull ScheduledCommand<S> command)
+        {
+            command.bucket = this;
+            command.prev = tail;
+            command.next = null;
+            if (tail == null)
+                head = command;
+            else
+                tail.next = command;
+            tail = command;
+        }
+
+        void remove(@NotNull ScheduledCommand<S> command)
+        {
+            if (command.bucket != this)
+                return;
+            if (command.prev == null)
+                head = command.next;
+            else
+                command.prev.next = command.next;
+            if (command.next == null)
+                tail = command.prev;
+            else
+                command.next.prev = command.prev;
+            command.bucket = null;
+            command.prev = null;
+            command.next = null;
+        }
+    }
+
+    private static final class NoopStore<S> implements ScheduledCommandStore<S>
+    {
+        private static final NoopStore<?> INSTANCE = new NoopStore<>();
+
+        @SuppressWarnings("unchecked")
+        static <S> @NotNull ScheduledCommandStore<S> instance()
+        {
+            return (ScheduledCommandStore<S>) INSTANCE;
+        }
+
+        @Override
+        public void on_scheduled(@NotNull ScheduledCommand<S> command)
+        {
+        }
+
+        @Override
+        public void on_removed(@NotNull ScheduledCommand<S> command)
+        {
+        }
+    }
+}
@@ -11,17 +11,32 @@ package org.aperlambda.kimiko;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * Represents a tab completer handler of a command.
  *
  * @param <S> The typename of the sender.
- * @version 1.1.0
+ * @version 1.2.0
  * @since 1.0.0
  */
 @FunctionalInterface
 public interface CommandTabCompleter<S>
 {
     List<String> on_tab_complete(CommandContext<S> context, @NotNull Command<S> command, String label, String[] args);
+
+    /**
+     * Composes several tab completers into one which merges their completions.
+     * <p>A {@link TabCompletionEngine} runs the composed tab completers concurrently.</p>
+     *
+     * @param completers The tab completers to compose.
+     * @param <S>        The typename of the sender.
+     * @return The composite tab completer.
+     */
+    @SafeVarargs
+    static <S> @NotNull CompositeTabCompleter<S> compose(@NotNull CommandTabCompleter<S>... completers)
+    {
+        return new CompositeTabCompleter<>(Arrays.asList(completers));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,168 @@
+/*
+ * Copyright © 2019 LambdAurora <aurora42lambda@gmail.com>
+ *
+ * This file is part of kimiko.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package org.aperlambda.kimiko;
+
+import org.aperlambda.lambdacommon.resources.ResourceName;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Represents an immutable snapshot of the root commands of a {@link ReloadableCommandManager}.
+ * <p>A dispatch which resolved its command from a tree keeps using that tree even if a newer one is swapped in meanwhile.</p>
+ *
+ * @param <S> The typename of the sender.
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public final class CommandTree<S>
+{
+    private static final CommandTree<?> EMPTY = new CommandTree<>(Collections.emptyMap());
+
+    private final Map<ResourceName, Command<S>> commands;
+    private final Map<String, Command<S>>       labels;
+
+    CommandTree(@NotNull Map<ResourceName, Command<S>> commands)
+    {
+        this.commands = Collections.unmodifiableMap(new LinkedHashMap<>(commands));
+        var labels = new HashMap<String, Command<S>>();
+        commands.values().forEach(command -> labels.putIfAbsent(command.get_name().toLowerCase(), command));
+        commands.values().forEach(command -> command.get_aliases().forEach(alias -> labels.putIfAbsent(alias, command)));
+        this.labels = labels;
+    }
+
+    /**
+     * Gets the empty command tree.
+     *
+     * @param <S> The typename of the sender.
+     * @return The empty command tree.
+     */
+    @SuppressWarnings("unchecked")
+    public static <S> @NotNull CommandTree<S> empty()
+    {
+        return (CommandTree<S>) EMPTY;
+    }
+
+    /**
+     * Creates a new command tree with the specified command added or replaced.
+     *
+     * @param command The command to add.
+     * @return The new command tree.
+     */
+    @NotNull CommandTree<S> with(@NotNull Command<S> command)
+    {
+        var commands = new LinkedHashMap<>(this.commands);
+        commands.put(command.get_resource_name(), command);
+        return new CommandTree<>(commands);
+    }
+
+    /**
+     * Checks whether the tree has the specified command.
+     *
+     * @param name The name of the command.
+     * @return True if found, else false.
+     */
+    public boolean has_command(@NotNull ResourceName name)
+    {
+        return commands.containsKey(name);
+    }
+
+    /**
+     * Gets a command by it's name.
+     *
+     * @param name The name of the command.
+     * @return The optional command.
+     */
+    public @NotNull Optional<Command<S>> get_command(@NotNull ResourceName name)
+    {
+        return Optional.ofNullable(commands.get(name));
+    }
+
+    /**
+     * Gets a command by it's name or alias.
+     *
+     * @param label The name or the alias of the command.
+     * @return The optional command.
+     */
+    public @NotNull Optional<Command<S>> get_command(@NotNull String label)
+    {
+        return Optional.ofNullable(labels.get(label.toLowerCase()));
+    }
+
+    /**
+     * Gets the commands of the tree.
+     *
+     * @return A list of the commands.
+     */
+    public @NotNull List<Command<S>> get_commands()
+    {
+        return new ArrayList<>(commands.values());
+    }
+
+    /**
+     * Checks whether the tree is empty or not.
+     *
+     * @return True if the tree has no command, else false.
+     */
+    public boolean is_empty()
+    {
+        return commands.isEmpty();
+    }
+
+    /**
+     * Validates the commands of the tree and of their sub-commands.
+     * <p>A command is invalid if it has no executor or if one of its labels collides with the label of one of its siblings.
+     * The definition of a {@link LazyCommand} which is not materialized yet is not checked.</p>
+     *
+     * @param commands The commands to validate.
+     * @param <S>      The typename of the sender.
+     * @return The problems found, empty if the commands are valid.
+     */
+    static <S> @NotNull List<String> validate(@NotNull Collection<Command<S>> commands)
+    {
+        var problems = new ArrayList<String>();
+        validate("", commands, problems, Collections.newSetFromMap(new IdentityHashMap<>()));
+        return problems;
+    }
+
+    private static <S> void validate(@NotNull String path, @NotNull Collection<Command<S>> commands, @NotNull List<String> problems, @NotNull Set<Command<S>> visited)
+    {
+        var labels = new HashMap<String, Command<S>>();
+        for (var command : commands) {
+            var command_path = path + command.get_name();
+            if (!visited.add(command)) {
+                problems.add("Command '" + command_path + "' is present more than once in the tree.");
+                continue;
+            }
+            // A command which is not materialized yet is validated on its labels only, validating it would defeat its laziness.
+            boolean materialized = !(command instanceof LazyCommand) || ((LazyCommand<S>) command).is_materialized();
+            if (materialized && command.get_executor() == null)
+                problems.add("Command '" + command_path + "' has no executor.");
+            var command_labels = new ArrayList<String>();
+            command_labels.add(command.get_name().toLowerCase());
+            command_labels.addAll(command.get_aliases());
+            for (var label : command_labels) {
+                var other = labels.putIfAbsent(label, command);
+                if (other != null && other != command)
+                    problems.add("Label '" + path + label + "' of command '" + command_path + "' collides with command '" + path + other.get_name() + "'.");
+            }
+            if (materialized)
+                validate(command_path + " ", command.get_sub_commands(), problems, visited);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CommandTree{" +
+                "commands=" + commands.keySet() +
+                '}';
+    }
+}
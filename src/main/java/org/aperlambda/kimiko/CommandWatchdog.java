@@ -0,0 +1,128 @@
+/*
+ * Copyright © 2019 LambdAurora <aurora42lambda@gmail.com>
+ *
+ * This file is part of kimiko.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package org.aperlambda.kimiko;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Represents a watchdog of command executions.
+ * <p>All the executions watched by a watchdog share one timer thread. When an execution exceeds the time budget of its command,
+ * it is cancelled (see {@link CommandExecution}) and the stack of its thread is sampled periodically until it finishes,
+ * the stall handler is notified after each sample.</p>
+ * <p>An exception thrown by the executor is mapped to {@link CommandResult#runtime_error(Throwable)}.
+ * Once the watchdog is closed, the commands it would watch are executed unwatched.</p>
+ *
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class CommandWatchdog implements AutoCloseable
+{
+    private static final int MAX_SAMPLES = 64;
+
+    private final @NotNull ScheduledThreadPoolExecutor timer;
+    private final          long                        sample_interval;
+    private final @NotNull Consumer<CommandExecution>  stall_handler;
+
+    /**
+     * Creates a new watchdog.
+     *
+     * @param sample_interval The interval between two stack samples of a stalled execution.
+     * @param unit            The time unit of the interval.
+     * @param stall_handler   The handler notified after each stack sample of a stalled execution, called on the timer thread.
+     */
+    public CommandWatchdog(long sample_interval, @NotNull TimeUnit unit, @NotNull Consumer<CommandExecution> stall_handler)
+    {
+        if (sample_interval <= 0)
+            throw new IllegalArgumentException("Sample interval must be positive.");
+        this.sample_interval = unit.toNanos(sample_interval);
+        this.stall_handler = Objects.requireNonNull(stall_handler, "Stall handler cannot be null.");
+        this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            var thread = new Thread(runnable, "kimiko-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timer.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Gets the watchdog used by the commands which have a time budget but no watchdog.
+     * <p>Its stall handler does nothing.</p>
+     *
+     * @return The default watchdog.
+     */
+    public static @NotNull CommandWatchdog get_default()
+    {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Executes the command under the watch of this watchdog.
+     *
+     * @param command     The command to execute.
+     * @param context     The context of the command.
+     * @param label       The label used to call the command.
+     * @param args        The arguments of the command.
+     * @param time_budget The time budget of the execution.
+     * @param unit        The time unit of the time budget.
+     * @param <S>         The typename of the sender.
+     * @return The result of the execution of the command.
+     */
+    public <S> @NotNull CommandResult watch(@NotNull Command<S> command, CommandContext<S> context, String label, String[] args, long time_budget, @NotNull TimeUnit unit)
+    {
+        var execution = new CommandExecution(command, label, args, unit.toNanos(time_budget));
+        ScheduledFuture<?> task;
+        try {
+            task = timer.scheduleAtFixedRate(() -> on_stall(execution), unit.toNanos(time_budget), sample_interval, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // The watchdog is closed, the command still runs but without time budget.
+            return command.get_executor().execute(context, command, label, args);
+        }
+        var previous = CommandExecution.enter(execution);
+        try {
+            return command.get_executor().execute(context, command, label, args);
+        } catch (RuntimeException e) {
+            return CommandResult.runtime_error(e);
+        } finally {
+            execution.finish();
+            task.cancel(false);
+            CommandExecution.exit(previous);
+        }
+    }
+
+    private void on_stall(@NotNull CommandExecution execution)
+    {
+        if (execution.is_finished())
+            return;
+        execution.cancel();
+        if (execution.sample(MAX_SAMPLES))
+            stall_handler.accept(execution);
+    }
+
+    /**
+     * Closes the watchdog: the current executions are not watched anymore and the next ones are executed unwatched.
+     */
+    @Override
+    public void close()
+    {
+        timer.shutdownNow();
+    }
+
+    private static final class DefaultHolder
+    {
+        private static final CommandWatchdog INSTANCE = new CommandWatchdog(100, TimeUnit.MILLISECONDS, execution -> {});
+    }
+}
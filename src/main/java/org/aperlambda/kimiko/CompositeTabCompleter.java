@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2019 LambdAurora <aurora42lambda@gmail.com>
+ *
+ * This file is part of kimiko.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package org.aperlambda.kimiko;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Represents a tab completer which merges the completions of several tab completers.
+ *
+ * @param <S> The typename of the sender.
+ * @version 1.2.0
+ * @see CommandTabCompleter#compose(CommandTabCompleter[])
+ * @since 1.2.0
+ */
+public class CompositeTabCompleter<S> implements CommandTabCompleter<S>
+{
+    private final @NotNull List<CommandTabCompleter<S>> completers;
+
+    public CompositeTabCompleter(@NotNull List<CommandTabCompleter<S>> completers)
+    {
+        completers.forEach(completer -> Objects.requireNonNull(completer, "Tab completer cannot be null."));
+        this.completers = List.copyOf(completers);
+    }
+
+    /**
+     * Gets the composed tab completers.
+     *
+     * @return The tab completers.
+     */
+    public @NotNull List<CommandTabCompleter<S>> get_completers()
+    {
+        return completers;
+    }
+
+    @Override
+    public List<String> on_tab_complete(CommandContext<S> context, @NotNull Command<S> command, String label, String[] args)
+    {
+        List<String> merged = null;
+        for (var completer : completers) {
+            var completion = completer.on_tab_complete(context, command, label, args);
+            if (completion == null)
+                continue;
+            if (merged == null)
+                merged = new ArrayList<>();
+            merged.addAll(completion);
+        }
+        return merged;
+    }
+}
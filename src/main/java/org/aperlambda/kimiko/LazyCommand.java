@@ -0,0 +1,84 @@
+/*
+ * Copyright © 2019 LambdAurora <aurora42lambda@gmail.com>
+ *
+ * This file is part of kimiko.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package org.aperlambda.kimiko;
+
+import org.aperlambda.lambdacommon.resources.ResourceName;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Represents a command whose definition is deferred until it is first needed.
+ * <p>Only the name, the aliases and the permission are known at registration. The first time anything else is accessed,
+ * typically when the command is dispatched or completed, the factory builds the real command and its sub-commands,
+ * whose definition is copied into this command. The factory is called at most once, even when several threads race to materialize the command,
+ * if it fails the exception is rethrown and the next access tries again. Setting anything else than the aliases and the permission
+ * materializes the command first, so the set value overrides the one of the factory.</p>
+ * <p>The factory is called while holding the monitor of this command: a factory which accesses another lazy command
+ * can deadlock against a thread materializing both commands in the opposite order, it should only build its own subtree.</p>
+ *
+ * @param <S> The typename of the sender.
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class LazyCommand<S> extends Command<S>
+{
+    private volatile Supplier<Command<S>> factory;
+
+    public LazyCommand(@NotNull ResourceName name, @Nullable String permission, @NotNull List<String> aliases, @NotNull Supplier<Command<S>> factory)
+    {
+        super(name);
+        this.factory = Objects.requireNonNull(factory, "Command factory cannot be null.");
+        set_required_permission(permission);
+        set_aliases(aliases);
+    }
+
+    /**
+     * Checks whether the command has been materialized or not.
+     *
+     * @return True if the factory has built the command, else false.
+     */
+    public boolean is_materialized()
+    {
+        return factory == null;
+    }
+
+    @Override
+    void materialize()
+    {
+        if (factory == null)
+            return;
+        synchronized (this) {
+            var factory = this.factory;
+            if (factory == null)
+                return;
+            var command = Objects.requireNonNull(factory.get(), "Command factory cannot return null.");
+            command.materialize();
+            adopt(command);
+            // Publishes the adopted definition, readers see it once they read the factory as null.
+            this.factory = null;
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        if (!is_materialized())
+            return "LazyCommand{" +
+                    "name=" + get_resource_name() +
+                    ", aliases=" + get_aliases() +
+                    ", required_permission='" + get_required_permission() + '\'' +
+                    '}';
+        return super.toString();
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright © 2019 LambdAurora <aurora42lambda@gmail.com>
+ *
+ * This file is part of kimiko.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package org.aperlambda.kimiko;
+
+import jdk.jfr.*;
+
+/**
+ * Represents a Flight Recorder event of a permission check of a command.
+ *
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+@Name("kimiko.PermissionCheck")
+@Label("Permission Check")
+@Category("Kimiko")
+@Description("Permission check done by the command context.")
+@Enabled(false)
+@StackTrace(false)
+final class PermissionCheckEvent extends Event
+{
+    @Label("Command")
+    String command;
+
+    @Label("Permission")
+    String permission;
+
+    @Label("Granted")
+    boolean granted;
+}
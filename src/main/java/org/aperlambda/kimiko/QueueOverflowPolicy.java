@@ -0,0 +1,28 @@
+/*
+ * Copyright © 2019 LambdAurora <aurora42lambda@gmail.com>
+ *
+ * This file is part of kimiko.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package org.aperlambda.kimiko;
+
+/**
+ * Represents what a {@link SenderMailboxDispatcher} does when the mailbox of a sender is full.
+ *
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public enum QueueOverflowPolicy
+{
+    /**
+     * The submitted command is not queued, its result is {@link CommandResult#ERROR_BUSY}.
+     */
+    REJECT_NEW,
+    /**
+     * The oldest queued command is removed, its result is {@link CommandResult#ERROR_BUSY}, and the submitted command is queued.
+     */
+    DROP_OLDEST
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright © 2019 LambdAurora <aurora42lambda@gmail.com>
+ *
+ * This file is part of kimiko.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package org.aperlambda.kimiko;
+
+import org.aperlambda.lambdacommon.resources.ResourceName;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Represents a command manager which stores its commands in an immutable {@link CommandTree} swapped atomically.
+ * <p>Dispatching threads never see a partially registered tree: a reload is built off-thread with {@link #begin_reload()} and published at once by {@link CommandReload#commit()}.</p>
+ *
+ * @param <S> The typename of the sender.
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class ReloadableCommandManager<S> extends CommandManager<S>
+{
+    private final AtomicReference<CommandTree<S>> tree = new AtomicReference<>(CommandTree.empty());
+
+    @Override
+    public void register(@NotNull Command<S> command)
+    {
+        tree.updateAndGet(current -> current.with(command));
+    }
+
+    @Override
+    public boolean has_command(@NotNull ResourceName name)
+    {
+        return get_tree().has_command(name);
+    }
+
+    @Override
+    public @NotNull Optional<Command<S>> get_command(@NotNull ResourceName name)
+    {
+        return get_tree().get_command(name);
+    }
+
+    @Override
+    public @NotNull Optional<Command<S>> get_command(@NotNull String label)
+    {
+        return get_tree().get_command(label);
+    }
+
+    @Override
+    public @NotNull List<Command<S>> get_commands()
+    {
+        return get_tree().get_commands();
+    }
+
+    @Override
+    public void clear_commands()
+    {
+        tree.set(CommandTree.empty());
+    }
+
+    /**
+     * Gets the current command tree.
+     *
+     * @return The current command tree.
+     */
+    public @NotNull CommandTree<S> get_tree()
+    {
+        return tree.get();
+    }
+
+    /**
+     * Begins a reload which builds a complete new tree starting from no command.
+     *
+     * @return The reload transaction.
+     */
+    public @NotNull CommandReload<S> begin_reload()
+    {
+        return begin_reload(false);
+    }
+
+    /**
+     * Begins a reload.
+     *
+     * @param keep_current True if the reload starts from the commands of the current tree, else false.
+     * @return The reload transaction.
+     */
+    public @NotNull CommandReload<S> begin_reload(boolean keep_current)
+    {
+        return new CommandReload<>(this, keep_current ? get_tree() : null);
+    }
+
+    boolean swap(CommandTree<S> expected, @NotNull CommandTree<S> tree)
+    {
+        if (expected == null) {
+            this.tree.set(tree);
+            return true;
+        }
+        return this.tree.compareAndSet(expected, tree);
+    }
+}
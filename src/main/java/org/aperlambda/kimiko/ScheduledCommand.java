@@ -0,0 +1,209 @@
+/*
+ * Copyright © 2019 LambdAurora <aurora42lambda@gmail.com>
+ *
+ * This file is part of kimiko.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package org.aperlambda.kimiko;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Represents a command scheduled by a {@link CommandScheduler}.
+ *
+ * @param <S> The typename of the sender.
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public final class ScheduledCommand<S>
+{
+    static final int PENDING      = 0;
+    static final int CANCELLED    = 1;
+    static final int DONE         = 2;
+    static final int RESCHEDULING = 3;
+
+    private final @NotNull CommandScheduler<S> scheduler;
+    private final @NotNull CommandContext<S>   context;
+    private final @NotNull String              label;
+    private final @NotNull String[]            args;
+    private final          long                period;
+    private final @NotNull AtomicInteger       state = new AtomicInteger(PENDING);
+    private volatile       long                deadline;
+    private volatile       long                deadline_millis;
+
+    // Wheel bookkeeping, only accessed by the ticker thread.
+    long                       rounds;
+    CommandScheduler.Bucket<S> bucket;
+    ScheduledCommand<S>        prev;
+    ScheduledCommand<S>        next;
+
+    ScheduledCommand(@NotNull CommandScheduler<S> scheduler, @NotNull CommandContext<S> context, @NotNull String label, @NotNull String[] args, long deadline, long period)
+    {
+        this.scheduler = scheduler;
+        this.context = context;
+        this.label = label;
+        this.args = args.clone();
+        this.period = period;
+        set_deadline(deadline);
+    }
+
+    /**
+     * Gets the context of the scheduled command.
+     *
+     * @return The context.
+     */
+    public @NotNull CommandContext<S> get_context()
+    {
+        return context;
+    }
+
+    /**
+     * Gets the label used to call the command.
+     *
+     * @return The label.
+     */
+    public @NotNull String get_label()
+    {
+        return label;
+    }
+
+    /**
+     * Gets the arguments of the command.
+     *
+     * @return The arguments.
+     */
+    public @NotNull String[] get_args()
+    {
+        return args.clone();
+    }
+
+    /**
+     * Gets the next execution time, in milliseconds since the epoch.
+     * <p>Meant to be persisted: {@link CommandScheduler#schedule_at(CommandContext, String, String[], long, long, TimeUnit)} restores the command.</p>
+     *
+     * @return The next execution time.
+     */
+    public long get_deadline()
+    {
+        return deadline_millis;
+    }
+
+    long get_deadline_nanos()
+    {
+        return deadline;
+    }
+
+    void set_deadline(long deadline)
+    {
+        this.deadline = deadline;
+        this.deadline_millis = System.currentTimeMillis() + TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+    }
+
+    /**
+     * Gets the period of the command.
+     *
+     * @param unit The time unit.
+     * @return The period, 0 if the command is executed only once.
+     */
+    public long get_period(@NotNull TimeUnit unit)
+    {
+        return unit.convert(period, TimeUnit.NANOSECONDS);
+    }
+
+    long get_period_nanos()
+    {
+        return period;
+    }
+
+    /**
+     * Checks whether the command is repeating or not.
+     *
+     * @return True if the command is executed periodically, else false.
+     */
+    public boolean is_repeating()
+    {
+        return period != 0;
+    }
+
+    /**
+     * Checks whether the command has been cancelled or not.
+     *
+     * @return True if cancelled, else false.
+     */
+    public boolean is_cancelled()
+    {
+        return state.get() == CANCELLED;
+    }
+
+    /**
+     * Checks whether the command has been executed for the last time or not.
+     *
+     * @return True if the command will not be executed anymore because it has been executed, else false.
+     */
+    public boolean is_done()
+    {
+        return state.get() == DONE;
+    }
+
+    boolean is_pending()
+    {
+        return state.get() == PENDING;
+    }
+
+    boolean finish()
+    {
+        return state.compareAndSet(PENDING, DONE);
+    }
+
+    boolean begin_reschedule()
+    {
+        return state.compareAndSet(PENDING, RESCHEDULING);
+    }
+
+    /**
+     * Ends the rescheduling of the command.
+     *
+     * @return True if the command is pending again, false if it has been cancelled while rescheduling.
+     */
+    boolean end_reschedule()
+    {
+        return state.compareAndSet(RESCHEDULING, PENDING);
+    }
+
+    /**
+     * Cancels the command.
+     *
+     * @return True if the command has been cancelled, false if it was already cancelled or done.
+     */
+    public boolean cancel()
+    {
+        while (true) {
+            int current = state.get();
+            if (current != PENDING && current != RESCHEDULING)
+                return false;
+            if (state.compareAndSet(current, CANCELLED)) {
+                // The rescheduling thread notifies the store once it is done, after its on_scheduled call.
+                scheduler.on_cancel(this, current == PENDING);
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ScheduledCommand{" +
+                "label='" + label + '\'' +
+                ", args=" + Arrays.toString(args) +
+                ", deadline=" + deadline_millis +
+                ", period=" + period +
+                '}';
+    }
+}
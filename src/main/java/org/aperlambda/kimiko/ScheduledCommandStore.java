@@ -0,0 +1,38 @@
+/*
+ * Copyright © 2019 LambdAurora <aurora42lambda@gmail.com>
+ *
+ * This file is part of kimiko.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package org.aperlambda.kimiko;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Represents the persistence hooks of a {@link CommandScheduler}.
+ * <p>The hooks are called synchronously, on the thread which schedules or cancels the command or on the thread which executes it,
+ * they should hand the work off if the storage is slow.</p>
+ *
+ * @param <S> The typename of the sender.
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public interface ScheduledCommandStore<S>
+{
+    /**
+     * Called when a command is scheduled, and again each time a repeating command is rescheduled with its new deadline.
+     *
+     * @param command The scheduled command.
+     */
+    void on_scheduled(@NotNull ScheduledCommand<S> command);
+
+    /**
+     * Called when a command will not be executed anymore, because it has been cancelled or executed for the last time.
+     *
+     * @param command The removed command.
+     */
+    void on_removed(@NotNull ScheduledCommand<S> command);
+}
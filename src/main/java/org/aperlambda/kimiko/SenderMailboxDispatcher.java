@@ -0,0 +1,196 @@
+/*
+ * Copyright © 2019 LambdAurora <aurora42lambda@gmail.com>
+ *
+ * This file is part of kimiko.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package org.aperlambda.kimiko;
+
+import org.aperlambda.lambdacommon.utils.Pair;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Represents a dispatcher which executes the commands off the calling thread, in submission order for each sender
+ * and in parallel across senders.
+ * <p>Each sender has a lock-free serial mailbox which runs on the executor, for example a shared pool,
+ * or on Java 21+ an {@code Executors.newVirtualThreadPerTaskExecutor()}. A mailbox holds at most {@code max_depth} queued commands,
+ * beyond that the {@link QueueOverflowPolicy} applies. A mailbox is dropped as soon as it is idle, so transient senders do not accumulate.</p>
+ * <p>The senders are compared with {@link Object#equals(Object)} and cannot be null.</p>
+ *
+ * @param <S> The typename of the sender.
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class SenderMailboxDispatcher<S>
+{
+    /**
+     * The number of commands a mailbox executes before yielding its thread to the other mailboxes.
+     */
+    private static final int THROUGHPUT = 16;
+
+    private final @NotNull CommandManager<S>          manager;
+    private final @NotNull Executor                   executor;
+    private final          int                        max_depth;
+    private final @NotNull QueueOverflowPolicy        overflow_policy;
+    private final @NotNull ConcurrentMap<S, Mailbox>  mailboxes = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new dispatcher.
+     *
+     * @param manager         The command manager.
+     * @param executor        The executor which runs the mailboxes.
+     * @param max_depth       The maximum number of queued commands per sender.
+     * @param overflow_policy The policy applied when the mailbox of a sender is full.
+     */
+    public SenderMailboxDispatcher(@NotNull CommandManager<S> manager, @NotNull Executor executor, int max_depth, @NotNull QueueOverflowPolicy overflow_policy)
+    {
+        if (max_depth <= 0)
+            throw new IllegalArgumentException("Maximum depth must be positive.");
+        this.manager = Objects.requireNonNull(manager, "Command manager cannot be null.");
+        this.executor = Objects.requireNonNull(executor, "Executor cannot be null.");
+        this.max_depth = max_depth;
+        this.overflow_policy = Objects.requireNonNull(overflow_policy, "Overflow policy cannot be null.");
+    }
+
+    /**
+     * Submits a command to the mailbox of its sender.
+     *
+     * @param context The context of the command.
+     * @param label   The label used to call the command.
+     * @param args    The arguments of the command.
+     * @return The future result of the execution of the command and the usage if the result is {@link CommandResult#ERROR_USAGE}.
+     * @see CommandManager#dispatch(CommandContext, String, String[])
+     */
+    public @NotNull CompletableFuture<Pair<CommandResult, String>> submit(@NotNull CommandContext<S> context, @NotNull String label, @NotNull String[] args)
+    {
+        var sender = Objects.requireNonNull(context.get_sender(), "Sender cannot be null.");
+        var task = new Task<>(context, label, args);
+        while (true) {
+            var mailbox = mailboxes.computeIfAbsent(sender, Mailbox::new);
+            int count = mailbox.count.get();
+            if (count < 0) {
+                // The mailbox has been reclaimed meanwhile, its commands are all executed so a new one keeps the order.
+                mailboxes.remove(sender, mailbox);
+                continue;
+            }
+            if (count >= max_depth) {
+                if (overflow_policy == QueueOverflowPolicy.REJECT_NEW)
+                    return CompletableFuture.completedFuture(new Pair<>(CommandResult.ERROR_BUSY, null));
+                var oldest = mailbox.queue.poll();
+                if (oldest == null) {
+                    // The mailbox is dequeuing its oldest command, the count drops right after.
+                    Thread.onSpinWait();
+                    continue;
+                }
+                oldest.future.complete(new Pair<>(CommandResult.ERROR_BUSY, null));
+                mailbox.queue.add(task);
+                mailbox.schedule();
+                return task.future;
+            }
+            if (mailbox.count.compareAndSet(count, count + 1)) {
+                mailbox.queue.add(task);
+                mailbox.schedule();
+                return task.future;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of senders which have a mailbox, which is the number of senders with queued or running commands.
+     *
+     * @return The number of mailboxes.
+     */
+    public int get_mailbox_count()
+    {
+        return mailboxes.size();
+    }
+
+    private static final class Task<S>
+    {
+        private final @NotNull CommandContext<S>                              context;
+        private final @NotNull String                                         label;
+        private final @NotNull String[]                                       args;
+        private final @NotNull CompletableFuture<Pair<CommandResult, String>> future = new CompletableFuture<>();
+
+        Task(@NotNull CommandContext<S> context, @NotNull String label, @NotNull String[] args)
+        {
+            this.context = context;
+            this.label = label;
+            this.args = args;
+        }
+    }
+
+    private final class Mailbox implements Runnable
+    {
+        private final @NotNull S              sender;
+        private final @NotNull Queue<Task<S>> queue     = new ConcurrentLinkedQueue<>();
+        /**
+         * The number of queued commands, -1 once the mailbox is reclaimed.
+         */
+        private final @NotNull AtomicInteger  count     = new AtomicInteger();
+        private final @NotNull AtomicBoolean  scheduled = new AtomicBoolean();
+
+        Mailbox(@NotNull S sender)
+        {
+            this.sender = sender;
+        }
+
+        void schedule()
+        {
+            if (!scheduled.compareAndSet(false, true))
+                return;
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+                Task<S> task;
+                while ((task = queue.poll()) != null) {
+                    count.decrementAndGet();
+                    task.future.complete(new Pair<>(CommandResult.runtime_error(e), null));
+                }
+                reclaim();
+            }
+        }
+
+        @Override
+        public void run()
+        {
+            try {
+                for (int i = 0; i < THROUGHPUT; i++) {
+                    var task = queue.poll();
+                    if (task == null)
+                        break;
+                    count.decrementAndGet();
+                    try {
+                        task.future.complete(manager.dispatch(task.context, task.label, task.args));
+                    } catch (Throwable e) {
+                        // Even an error of one command must not wedge the mailbox of its sender.
+                        task.future.complete(new Pair<>(CommandResult.runtime_error(e), null));
+                    }
+                }
+            } finally {
+                scheduled.set(false);
+                if (!queue.isEmpty())
+                    schedule();
+                else
+                    reclaim();
+            }
+        }
+
+        private void reclaim()
+        {
+            // Fails if a command has been submitted meanwhile, its submitter schedules the mailbox again.
+            if (count.compareAndSet(0, -1))
+                mailboxes.remove(sender, this);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright © 2019 LambdAurora <aurora42lambda@gmail.com>
+ *
+ * This file is part of kimiko.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package org.aperlambda.kimiko;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Represents a sink which delivers the batches asynchronously, in order, to another sink.
+ * <p>At most {@code max_pending} batches wait for their delivery: once the limit is reached, {@link #send_messages(List)} blocks
+ * until a batch is delivered, which slows down the executor producing the output instead of buffering it entirely.
+ * If the executor rejects the delivery, the batches are delivered on the sending thread.</p>
+ *
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class StreamingMessageSink implements CommandMessageSink, AutoCloseable
+{
+    private final @NotNull CommandMessageSink  sink;
+    private final @NotNull Executor            executor;
+    private final          int                 max_pending;
+    private final @NotNull Queue<List<String>> queue    = new ConcurrentLinkedQueue<>();
+    private final @NotNull AtomicBoolean       draining = new AtomicBoolean();
+    private final @NotNull Object              lock     = new Object();
+    private                int                 pending  = 0;
+
+    /**
+     * Creates a new streaming sink.
+     *
+     * @param sink        The sink which receives the batches.
+     * @param executor    The executor which delivers the batches.
+     * @param max_pending The maximum number of batches waiting for their delivery.
+     */
+    public StreamingMessageSink(@NotNull CommandMessageSink sink, @NotNull Executor executor, int max_pending)
+    {
+        if (max_pending <= 0)
+            throw new IllegalArgumentException("The maximum number of pending batches must be positive.");
+        this.sink = Objects.requireNonNull(sink, "Message sink cannot be null.");
+        this.executor = Objects.requireNonNull(executor, "Executor cannot be null.");
+        this.max_pending = max_pending;
+    }
+
+    @Override
+    public void send_messages(@NotNull List<String> messages)
+    {
+        synchronized (lock) {
+            boolean interrupted = false;
+            while (pending >= max_pending) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    // The batch is still queued, losing output is worse than exceeding the limit once.
+                    interrupted = true;
+                    break;
+                }
+            }
+            pending++;
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+        queue.add(new ArrayList<>(messages));
+        schedule_drain();
+    }
+
+    private void schedule_drain()
+    {
+        if (!draining.compareAndSet(false, true))
+            return;
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // Delivers the batches on this thread rather than losing them and blocking the next senders forever.
+            drain();
+        }
+    }
+
+    private void drain()
+    {
+        try {
+            List<String> batch;
+            while ((batch = queue.poll()) != null) {
+                try {
+                    sink.send_messages(batch);
+                } finally {
+                    synchronized (lock) {
+                        pending--;
+                        lock.notifyAll();
+                    }
+                }
+            }
+        } finally {
+            draining.set(false);
+            if (!queue.isEmpty())
+                schedule_drain();
+        }
+    }
+
+    /**
+     * Waits until all the batches are delivered.
+     *
+     * @throws InterruptedException If the current thread is interrupted while waiting.
+     */
+    public void await_delivery() throws InterruptedException
+    {
+        synchronized (lock) {
+            while (pending > 0)
+                lock.wait();
+        }
+    }
+
+    /**
+     * Waits until all the batches are delivered.
+     */
+    @Override
+    public void close()
+    {
+        try {
+            await_delivery();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright © 2019 LambdAurora <aurora42lambda@gmail.com>
+ *
+ * This file is part of kimiko.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package org.aperlambda.kimiko;
+
+import jdk.jfr.*;
+
+/**
+ * Represents a Flight Recorder event of a sub-command lookup by label.
+ *
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+@Name("kimiko.SubCommandLookup")
+@Label("Sub-Command Lookup")
+@Category("Kimiko")
+@Description("Resolution of a sub-command by its name or alias.")
+@Enabled(false)
+@StackTrace(false)
+final class SubCommandLookupEvent extends Event
+{
+    @Label("Command")
+    @Description("Path of the command owning the sub-commands.")
+    String command;
+
+    @Label("Label")
+    String label;
+
+    @Label("Found")
+    boolean found;
+}
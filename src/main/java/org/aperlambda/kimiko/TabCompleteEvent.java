@@ -0,0 +1,41 @@
+/*
+ * Copyright © 2019 LambdAurora <aurora42lambda@gmail.com>
+ *
+ * This file is part of kimiko.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package org.aperlambda.kimiko;
+
+import jdk.jfr.*;
+
+/**
+ * Represents a Flight Recorder event of a tab completion.
+ *
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+@Name("kimiko.TabComplete")
+@Label("Tab Completion")
+@Category("Kimiko")
+@Description("Tab completion of a command, including its tab completers.")
+@Enabled(false)
+@StackTrace(false)
+final class TabCompleteEvent extends Event
+{
+    @Label("Command")
+    @Description("Path of the command which completes the arguments.")
+    String command;
+
+    @Label("Arguments")
+    int arguments;
+
+    @Label("Completions")
+    int completions;
+
+    @Label("Asynchronous")
+    @Description("Whether the tab completers ran concurrently on a tab completion engine.")
+    boolean asynchronous;
+}
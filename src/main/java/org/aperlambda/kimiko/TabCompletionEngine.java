@@ -0,0 +1,308 @@
+/*
+ * Copyright © 2019 LambdAurora <aurora42lambda@gmail.com>
+ *
+ * This file is part of kimiko.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package org.aperlambda.kimiko;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Represents a tab completion engine which runs the tab completers of a command concurrently.
+ * <p>Each tab completer has its own deadline: the completions which arrive in time are merged and cached, a tab completer which misses
+ * its deadline is interrupted and replaced by its cached completions for the same arguments or for a shorter last argument (the previous keystroke).
+ * While a tab completer is running for some arguments, the next keystrokes reuse its completions instead of queuing another task.</p>
+ * <p>The tab completers of a {@link CompositeTabCompleter} are run concurrently, any other tab completer is run as a single task.
+ * Only the tab completers run off-thread, the sub-commands and their permissions are resolved on the calling thread.</p>
+ *
+ * @param <S> The typename of the sender.
+ * @version 1.2.0
+ * @since 1.2.0
+ */
+public class TabCompletionEngine<S> implements AutoCloseable
+{
+    private static final int CACHE_SIZE = 256;
+
+    private final @NotNull ExecutorService               executor;
+    private final          boolean                       owns_executor;
+    private final          long                          deadline_nanos;
+    private final @NotNull Map<CacheKey, CompletionTask> in_flight = new ConcurrentHashMap<>();
+    private final @NotNull Map<CacheKey, CachedEntry>    cache     = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CacheKey, CachedEntry> eldest)
+        {
+            return size() > CACHE_SIZE;
+        }
+    });
+
+    /**
+     * Creates a new tab completion engine with its own bounded pool.
+     *
+     * @param threads  The number of threads of the pool.
+     * @param deadline The deadline of each tab completer.
+     * @param unit     The time unit of the deadline.
+     */
+    public TabCompletionEngine(int threads, long deadline, @NotNull TimeUnit unit)
+    {
+        this(new_pool(threads), true, deadline, unit);
+    }
+
+    /**
+     * Creates a new tab completion engine which runs the tab completers on the specified executor.
+     * <p>The executor is not shut down when the engine is closed.</p>
+     *
+     * @param executor The executor.
+     * @param deadline The deadline of each tab completer.
+     * @param unit     The time unit of the deadline.
+     */
+    public TabCompletionEngine(@NotNull ExecutorService executor, long deadline, @NotNull TimeUnit unit)
+    {
+        this(executor, false, deadline, unit);
+    }
+
+    private TabCompletionEngine(@NotNull ExecutorService executor, boolean owns_executor, long deadline, @NotNull TimeUnit unit)
+    {
+        if (deadline <= 0)
+            throw new IllegalArgumentException("Deadline must be positive.");
+        this.executor = Objects.requireNonNull(executor, "Executor cannot be null.");
+        this.owns_executor = owns_executor;
+        this.deadline_nanos = unit.toNanos(deadline);
+    }
+
+    private static @NotNull ExecutorService new_pool(int threads)
+    {
+        if (threads <= 0)
+            throw new IllegalArgumentException("The number of threads must be positive.");
+        var pool = new ThreadPoolExecutor(threads, threads, 30L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(threads * 16), runnable -> {
+            var thread = new Thread(runnable, "kimiko-tab-completion");
+            thread.setDaemon(true);
+            return thread;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Completes the arguments of the specified command.
+     *
+     * @param command The command.
+     * @param context The context of the tab completion.
+     * @param label   The label used to call the command.
+     * @param args    The arguments of the command.
+     * @return The future completions, completed at the latest once the deadline is reached.
+     * @see Command#on_tab_complete(CommandContext, String, String[])
+     */
+    public @NotNull CompletableFuture<List<String>> complete_async(@NotNull Command<S> command, CommandContext<S> context, String label, String[] args)
+    {
+        return run_completers(command, context, label, args).thenApply(Map.Entry::getValue);
+    }
+
+    /**
+     * Completes the arguments of the specified command, blocks until the completions are available or the deadline is reached.
+     * <p>Unlike {@link #complete_async(Command, CommandContext, String, String[])}, the completion is recorded as a Flight Recorder event,
+     * committed on the calling thread.</p>
+     *
+     * @param command The command.
+     * @param context The context of the tab completion.
+     * @param label   The label used to call the command.
+     * @param args    The arguments of the command.
+     * @return The completions.
+     * @see #complete_async(Command, CommandContext, String, String[])
+     */
+    public List<String> complete(@NotNull Command<S> command, CommandContext<S> context, String label, String[] args)
+    {
+        var event = CommandEvents.is_recording() ? new TabCompleteEvent() : null;
+        if (event != null)
+            event.begin();
+        var result = run_completers(command, context, label, args).join();
+        var completions = result.getValue();
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.command = result.getKey().get_path();
+                event.arguments = args.length;
+                event.completions = completions == null ? 0 : completions.size();
+                event.asynchronous = true;
+                event.commit();
+            }
+        }
+        return completions;
+    }
+
+    private @NotNull CompletableFuture<Map.Entry<Command<S>, List<String>>> run_completers(@NotNull Command<S> command, CommandContext<S> context, String label, String[] args)
+    {
+        var target = command.resolve_completion(context, args);
+        var target_command = target.getKey();
+        var target_args = target.getValue();
+
+        var completer = target_command.get_tab_completer();
+        var completers = completer instanceof CompositeTabCompleter ? ((CompositeTabCompleter<S>) completer).get_completers() : Collections.singletonList(completer);
+        // Resolved on the calling thread: the permission checks of the host may only be allowed there, only the tab completers run off-thread.
+        var sub_commands = target_command.get_permitted_sub_commands(context, target_args);
+
+        var futures = completers.stream()
+                .map(c -> complete(c, target_command, context, label, target_args))
+                .collect(Collectors.toList());
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> new AbstractMap.SimpleImmutableEntry<>(target_command,
+                        Command.merge_completions(target_args, sub_commands, futures.stream().map(CompletableFuture::join).collect(Collectors.toList()))));
+    }
+
+    private @NotNull CompletableFuture<List<String>> complete(@NotNull CommandTabCompleter<S> completer, @NotNull Command<S> command, CommandContext<S> context, String label, String[] args)
+    {
+        var key = new CacheKey(completer, command, context.get_sender(), args);
+        var last_arg = args.length == 0 ? "" : args[args.length - 1];
+
+        var result = new CompletableFuture<List<String>>();
+        var task = new CompletionTask(last_arg);
+        var running = in_flight.putIfAbsent(key, task);
+        if (running != null) {
+            // The previous keystroke is still being completed, its completions are reused instead of queuing another task.
+            running.completion.whenComplete((completion, error) -> result.complete(error == null ? filter(completion, running.last_arg, last_arg) : null));
+        } else {
+            try {
+                task.future = executor.submit(() -> task.run(key, () -> completer.on_tab_complete(context, command, label, args)));
+            } catch (RejectedExecutionException e) {
+                in_flight.remove(key, task);
+                return CompletableFuture.completedFuture(get_cached(key, last_arg));
+            }
+            task.completion.whenComplete((completion, error) -> result.complete(error == null ? completion : null));
+        }
+        CompletableFuture.delayedExecutor(deadline_nanos, TimeUnit.NANOSECONDS).execute(() -> {
+            if (!result.isDone())
+                result.complete(get_cached(key, last_arg));
+            // A tab completer which misses its deadline is interrupted so it cannot take over the pool.
+            if (running == null)
+                task.cancel(key);
+        });
+        return result;
+    }
+
+    private static @Nullable List<String> filter(@Nullable List<String> completion, @NotNull String completed_arg, @NotNull String last_arg)
+    {
+        if (completion == null || !last_arg.startsWith(completed_arg))
+            return null;
+        return completion.stream().filter(c -> c.startsWith(last_arg)).collect(Collectors.toList());
+    }
+
+    private @Nullable List<String> get_cached(@NotNull CacheKey key, @NotNull String last_arg)
+    {
+        var entry = cache.get(key);
+        return entry == null ? null : filter(entry.completion, entry.last_arg, last_arg);
+    }
+
+    /**
+     * Clears the cached completions.
+     */
+    public void clear_cache()
+    {
+        cache.clear();
+    }
+
+    @Override
+    public void close()
+    {
+        if (owns_executor)
+            executor.shutdownNow();
+    }
+
+    private static final class CacheKey
+    {
+        private final CommandTabCompleter<?> completer;
+        private final Command<?>             command;
+        private final Object                 sender;
+        private final List<String>           leading_args;
+
+        CacheKey(@NotNull CommandTabCompleter<?> completer, @NotNull Command<?> command, Object sender, String[] args)
+        {
+            this.completer = completer;
+            this.command = command;
+            this.sender = sender;
+            this.leading_args = args.length == 0 ? Collections.emptyList() : Arrays.asList(Arrays.copyOf(args, args.length - 1));
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) return true;
+            if (!(o instanceof CacheKey)) return false;
+            var other = (CacheKey) o;
+            return completer == other.completer && command == other.command && Objects.equals(sender, other.sender) && leading_args.equals(other.leading_args);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(System.identityHashCode(completer), System.identityHashCode(command), sender, leading_args);
+        }
+    }
+
+    /**
+     * Represents a tab completer task, running or waiting in the pool.
+     */
+    private final class CompletionTask
+    {
+        private final @NotNull String                          last_arg;
+        private final @NotNull CompletableFuture<List<String>> completion = new CompletableFuture<>();
+        private final @NotNull AtomicBoolean                   started    = new AtomicBoolean();
+        private volatile       Future<?>                       future;
+
+        CompletionTask(@NotNull String last_arg)
+        {
+            this.last_arg = last_arg;
+        }
+
+        void run(@NotNull CacheKey key, @NotNull Callable<List<String>> completer)
+        {
+            if (!started.compareAndSet(false, true))
+                return;
+            try {
+                var result = completer.call();
+                cache.put(key, new CachedEntry(last_arg, result));
+                completion.complete(result);
+            } catch (Throwable e) {
+                completion.completeExceptionally(e);
+            } finally {
+                // Only now another task may be submitted for the key, even if this one ignored its interruption.
+                in_flight.remove(key, this);
+            }
+        }
+
+        void cancel(@NotNull CacheKey key)
+        {
+            if (completion.isDone())
+                return;
+            var future = this.future;
+            if (future != null)
+                future.cancel(true);
+            // A task cancelled before it started never runs, releases its key here.
+            if (started.compareAndSet(false, true)) {
+                in_flight.remove(key, this);
+                completion.completeExceptionally(new CancellationException());
+            }
+        }
+    }
+
+    private static final class CachedEntry
+    {
+        private final          String       last_arg;
+        private final @Nullable List<String> completion;
+
+        CachedEntry(@NotNull String last_arg, @Nullable List<String> completion)
+        {
+            this.last_arg = last_arg;
+            this.completion = completion;
+        }
+    }
+}